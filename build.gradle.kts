@@ -5,6 +5,7 @@ plugins {
     java
     application
     id("org.openjfx.javafxplugin") version "0.0.14"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 java {
@@ -23,6 +24,46 @@ javafx {
 
 application {
     mainClass.set("org.vorpal.Main")
+    applicationDefaultJvmArgs = listOf("--add-modules=jdk.incubator.vector")
+}
+
+// The nearest-seed kernels use the incubating Vector API, and fall back to scalar code when it is absent at runtime.
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.add("--add-modules=jdk.incubator.vector")
+}
+
+// Headless batch generation, e.g. ./gradlew batch --args="--count=100 --size=1000 --validate --output=build/mazes".
+tasks.register<JavaExec>("batch") {
+    group = "application"
+    description = "Generates mazes in bulk without a UI and reports the throughput."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.vorpal.BatchMain")
+    jvmArgs("--add-modules=jdk.incubator.vector")
+}
+
+// Benchmarks in src/jmh: ./gradlew jmh runs the full suite, and ./gradlew jmh -Psmoke runs a quick pass over the
+// smallest mazes. Select benchmarks with e.g. -Pbenchmarks=VoronoiPhase. Results are written to build/results/jmh.
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    jvmArgsAppend.add("--add-modules=jdk.incubator.vector")
+    if (project.hasProperty("benchmarks")) {
+        includes.add(project.property("benchmarks").toString())
+    }
+    if (project.hasProperty("smoke")) {
+        fork.set(1)
+        warmupIterations.set(1)
+        warmup.set("1s")
+        iterations.set(1)
+        timeOnIteration.set("1s")
+        benchmarkParameters.put("size", objects.listProperty<String>().value(listOf("100")))
+    } else {
+        fork.set(2)
+        warmupIterations.set(3)
+        iterations.set(5)
+    }
 }
 
 tasks.register("printJavaFxJars") {
@@ -60,4 +101,5 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
+    jvmArgs("--add-modules=jdk.incubator.vector")
 }
\ No newline at end of file
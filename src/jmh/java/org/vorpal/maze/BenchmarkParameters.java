@@ -0,0 +1,69 @@
+/**
+ * BenchmarkParameters.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import org.vorpal.math.ChebyshevMetric2D;
+import org.vorpal.math.EuclideanMetric2D;
+import org.vorpal.math.ManhattanMetric2D;
+import org.vorpal.math.Metric2D;
+
+import java.util.function.Function;
+
+/**
+ * The parameters shared by the benchmarks, as enums so that they can be named in JMH @Param annotations.
+ */
+final class BenchmarkParameters {
+    private BenchmarkParameters() {}
+
+    enum Metric {
+        MANHATTAN(new ManhattanMetric2D()),
+        EUCLIDEAN(new EuclideanMetric2D()),
+        CHEBYSHEV(new ChebyshevMetric2D());
+
+        final Metric2D metric;
+
+        Metric(Metric2D metric) {
+            this.metric = metric;
+        }
+    }
+
+    enum Strategy {
+        RANDOM,
+        CENTROID,
+        POISSON_DISK,
+        LLOYD;
+
+        VoronoiSeedStrategy create(Function<Stage, Integer> countFunction) {
+            return switch (this) {
+                case RANDOM -> new VoronoiRandomSeedStrategy(countFunction);
+                case CENTROID -> new VoronoiCentroidSeedStrategy(countFunction);
+                case POISSON_DISK -> VoronoiPoissonDiskSeedStrategy.ofCount(countFunction);
+                case LLOYD -> new VoronoiLloydSeedStrategy(countFunction);
+            };
+        }
+    }
+
+    /**
+     * The number of seeds per stage.
+     */
+    enum Count {
+        /**
+         * Four seeds per stage, which gives the deepest subdivision.
+         */
+        FIXED_4(stage -> 4),
+        FIXED_16(stage -> 16),
+        /**
+         * One seed per 40 cells, as in the demo, which gives a shallow subdivision with many seeds.
+         */
+        AREA_40(stage -> stage.cells().size() / 40);
+
+        final Function<Stage, Integer> countFunction;
+
+        Count(Function<Stage, Integer> countFunction) {
+            this.countFunction = countFunction;
+        }
+    }
+}
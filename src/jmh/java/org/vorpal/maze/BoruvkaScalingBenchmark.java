@@ -0,0 +1,45 @@
+/**
+ * BoruvkaScalingBenchmark.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How the time to generate a large maze with the BoruvkaMazeGenerator scales with the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BoruvkaScalingBenchmark {
+    @Param({"2000", "8000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private MazeGenerator generator;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        generator = new BoruvkaMazeGenerator(pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Maze generate() {
+        return generator.generate(size, size, seed++);
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * ClassicGeneratorBenchmark.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput of the generators that work over the whole grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ClassicGeneratorBenchmark {
+    @Param({"100", "500", "1000", "4000"})
+    public int size;
+
+    private final MazeGenerator backtracker = new BacktrackerMazeGenerator();
+    private final MazeGenerator binaryTree = new BinaryTreeMazeGenerator();
+    private final MazeGenerator eller = new EllerMazeGenerator();
+    private final MazeGenerator kruskal = new KruskalMazeGenerator();
+    private final MazeGenerator boruvka = new BoruvkaMazeGenerator();
+    private long seed;
+
+    @Benchmark
+    public Maze backtracker() {
+        return backtracker.generate(size, size, seed++);
+    }
+
+    @Benchmark
+    public Maze binaryTree() {
+        return binaryTree.generate(size, size, seed++);
+    }
+
+    @Benchmark
+    public Maze eller() {
+        return eller.generate(size, size, seed++);
+    }
+
+    @Benchmark
+    public Maze kruskal() {
+        return kruskal.generate(size, size, seed++);
+    }
+
+    @Benchmark
+    public Maze boruvka() {
+        return boruvka.generate(size, size, seed++);
+    }
+}
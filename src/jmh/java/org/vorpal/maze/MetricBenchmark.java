@@ -0,0 +1,118 @@
+/**
+ * MetricBenchmark.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import org.openjdk.jmh.annotations.*;
+import org.vorpal.math.Metric2D;
+import org.vorpal.math.NearestSeedKernel;
+
+import java.awt.Point;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of the metrics, over every pair of a block of cells and a block of seeds, as in brute force labeling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MetricBenchmark {
+    private static final int CELLS = 1024;
+
+    @Param({"MANHATTAN", "EUCLIDEAN", "CHEBYSHEV"})
+    public BenchmarkParameters.Metric metric;
+
+    @Param({"16", "256"})
+    public int seedCount;
+
+    private Metric2D distance;
+    private Point[] cells;
+    private Point[] seeds;
+    private int[] cellRows;
+    private int[] cellColumns;
+    private int[] seedRows;
+    private int[] seedColumns;
+    private NearestSeedKernel kernel;
+    private int[] labels;
+
+    @Setup
+    public void setup() {
+        final SplittableRandom rnd = new SplittableRandom(0);
+        distance = metric.metric;
+        cells = new Point[CELLS];
+        for (int i = 0; i < CELLS; ++i)
+            cells[i] = new Point(rnd.nextInt(4000), rnd.nextInt(4000));
+        seeds = new Point[seedCount];
+        for (int i = 0; i < seedCount; ++i)
+            seeds[i] = new Point(rnd.nextInt(4000), rnd.nextInt(4000));
+
+        cellRows = new int[CELLS];
+        cellColumns = new int[CELLS];
+        for (int i = 0; i < CELLS; ++i) {
+            cellRows[i] = cells[i].x;
+            cellColumns[i] = cells[i].y;
+        }
+        seedRows = new int[seedCount];
+        seedColumns = new int[seedCount];
+        for (int i = 0; i < seedCount; ++i) {
+            seedRows[i] = seeds[i].x;
+            seedColumns[i] = seeds[i].y;
+        }
+        kernel = new NearestSeedKernel(distance, seedRows, seedColumns);
+        labels = new int[CELLS];
+    }
+
+    /**
+     * Find the nearest seed of every cell through the Point API.
+     */
+    @Benchmark
+    public long nearestPoint() {
+        long total = 0;
+        for (final Point cell : cells) {
+            int best = 0;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int s = 0; s < seeds.length; ++s) {
+                final int d = distance.distance(cell, seeds[s]);
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = s;
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    /**
+     * Find the nearest seed of every cell through the primitive API.
+     */
+    @Benchmark
+    public long nearestPrimitive() {
+        long total = 0;
+        for (int i = 0; i < CELLS; ++i) {
+            int best = 0;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int s = 0; s < seedRows.length; ++s) {
+                final int d = distance.distance(cellRows[i], cellColumns[i], seedRows[s], seedColumns[s]);
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = s;
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    /**
+     * Find the nearest seed of every cell with the batched kernel.
+     */
+    @Benchmark
+    public int[] nearestKernel() {
+        kernel.nearest(cellRows, cellColumns, CELLS, labels, 0);
+        return labels;
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * SolverBenchmark.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Point;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solving a perfect maze from corner to corner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SolverBenchmark {
+    @Param({"100", "500", "1000", "4000"})
+    public int size;
+
+    private Maze maze;
+    private SolverWorkspace workspace;
+    private MazeTreeIndex index;
+    private int end;
+
+    @Setup
+    public void setup() {
+        maze = new EllerMazeGenerator().generate(size, size, 0);
+        workspace = new SolverWorkspace();
+        index = MazeTreeIndex.build(maze);
+        end = size * size - 1;
+    }
+
+    /**
+     * The Point based API, with a fresh workspace per call.
+     */
+    @Benchmark
+    public List<Point> mazeSolver() {
+        return MazeSolver.solve(maze);
+    }
+
+    @Benchmark
+    public int[] workspace() {
+        return workspace.solve(maze, 0, end);
+    }
+
+    @Benchmark
+    public int[] bidirectional() {
+        return workspace.solveBidirectional(maze, 0, end);
+    }
+
+    @Benchmark
+    public int[] treeIndex() {
+        return index.path(0, end);
+    }
+}
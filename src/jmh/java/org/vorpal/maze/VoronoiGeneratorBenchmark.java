@@ -0,0 +1,44 @@
+/**
+ * VoronoiGeneratorBenchmark.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The throughput of complete Voronoi maze generation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VoronoiGeneratorBenchmark {
+    @Param({"100", "500", "1000", "4000"})
+    public int size;
+
+    @Param({"MANHATTAN", "EUCLIDEAN", "CHEBYSHEV"})
+    public BenchmarkParameters.Metric metric;
+
+    @Param({"RANDOM", "CENTROID", "POISSON_DISK", "LLOYD"})
+    public BenchmarkParameters.Strategy strategy;
+
+    @Param({"FIXED_4", "FIXED_16", "AREA_40"})
+    public BenchmarkParameters.Count count;
+
+    private MazeGenerator generator;
+    private long seed;
+
+    @Setup
+    public void setup() {
+        generator = new VoronoiMazeGenerator(strategy.create(count.countFunction), metric.metric,
+                new BacktrackerMazeGenerator());
+    }
+
+    @Benchmark
+    public Maze generate() {
+        return generator.generate(size, size, seed++);
+    }
+}
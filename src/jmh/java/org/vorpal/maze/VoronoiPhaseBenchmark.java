@@ -0,0 +1,88 @@
+/**
+ * VoronoiPhaseBenchmark.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The phases of a single stage of Voronoi maze generation, over a full square grid: labeling the cells with their
+ * nearest seeds, splitting the cells into regions, building the region adjacencies, joining the regions by a random
+ * spanning tree, and recursing into the regions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VoronoiPhaseBenchmark {
+    @Param({"100", "500", "1000", "4000"})
+    public int size;
+
+    @Param({"MANHATTAN", "EUCLIDEAN", "CHEBYSHEV"})
+    public BenchmarkParameters.Metric metric;
+
+    @Param({"16", "256", "4096"})
+    public int seedCount;
+
+    private VoronoiMazeGenerator generator;
+    private VoronoiLabeler labeler;
+    private CellSet cells;
+    private CellSet seeds;
+    private int[] labels;
+    private List<CellSet> regions;
+    private RegionAdjacency adjacency;
+    private Maze maze;
+
+    @Setup
+    public void setup() {
+        generator = new VoronoiMazeGenerator(new VoronoiRandomSeedStrategy(4), metric.metric,
+                new BacktrackerMazeGenerator());
+        labeler = VoronoiLabeler.forMetric(metric.metric);
+        cells = CellSet.full(size, size);
+        seeds = new VoronoiRandomSeedStrategy(seedCount).seedsFor(new Stage(0, cells), new SplittableRandom(0))
+                .orElseThrow();
+        labels = new int[cells.size()];
+        labeler.label(cells, seeds, labels);
+        regions = VoronoiMazeGenerator.splitRegions(cells, labels, seeds.size());
+        adjacency = RegionAdjacency.build(cells, labels, new SplittableRandom(0));
+        maze = new Maze(size, size);
+    }
+
+    @Benchmark
+    public int[] label() {
+        labeler.label(cells, seeds, labels);
+        return labels;
+    }
+
+    @Benchmark
+    public List<CellSet> split() {
+        return VoronoiMazeGenerator.splitRegions(cells, labels, seeds.size());
+    }
+
+    @Benchmark
+    public RegionAdjacency adjacency() {
+        return RegionAdjacency.build(cells, labels, new SplittableRandom(0));
+    }
+
+    @Benchmark
+    public Maze unionFind() {
+        VoronoiMazeGenerator.joinRegions(maze, adjacency, seeds.size(), new SplittableRandom(0));
+        return maze;
+    }
+
+    /**
+     * Subdivide every region of the stage down to the fallback generator, sequentially.
+     */
+    @Benchmark
+    public Maze recursion() {
+        final SplittableRandom rnd = new SplittableRandom(0);
+        for (final CellSet region : regions)
+            generator.subdivide(maze, new Stage(1, region), rnd.split(), null);
+        return maze;
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ * BatchMain.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal;
+
+import org.vorpal.maze.GenerationListener;
+import org.vorpal.maze.GenerationMetrics;
+import org.vorpal.maze.Maze;
+import org.vorpal.maze.MazeFile;
+import org.vorpal.maze.MazeGenerator;
+import org.vorpal.maze.MazeSolver;
+import org.vorpal.maze.MazeValidator;
+import org.vorpal.ui.MazeImageWriter;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A headless entry point that generates mazes in bulk, optionally solving, validating and writing them, and reports
+ * the throughput, the latency of every stage and the peak heap usage. Run with --help for the options.
+ * <p>
+ * The mazes are generated on virtual threads, or on a fixed pool of platform threads, and handed through a bounded
+ * queue to a single writer thread. A semaphore bounds the mazes in flight, from the start of their generation until
+ * they have been written, so generation stalls when output falls behind and memory stays bounded however many mazes
+ * are requested.
+ */
+public final class BatchMain {
+    private static final String[] STAGES = {"generate", "solve", "validate", "write"};
+    private static final int GENERATE = 0;
+    private static final int SOLVE = 1;
+    private static final int VALIDATE = 2;
+    private static final int WRITE = 3;
+
+    /**
+     * A maze on its way through the pipeline.
+     * @param nanos the time spent in each stage
+     */
+    private record Job(int index, long seed, long submitted, Maze maze, List<Point> solution, boolean perfect,
+                       long[] nanos, Throwable error) {}
+
+    private final BatchOptions options;
+    private final MazeGenerator generator;
+    private final MazeImageWriter imageWriter;
+    private final long[][] stageNanos;
+    private final long[] latencyNanos;
+    private final GenerationMetrics metrics;
+    private int failures;
+    private int imperfect;
+    private volatile boolean aborted;
+
+    private BatchMain(BatchOptions options) {
+        this.options = options;
+        generator = options.generator;
+        imageWriter = new MazeImageWriter(options.cellSize, options.wallSize);
+        stageNanos = new long[STAGES.length][options.count];
+        latencyNanos = new long[options.count];
+        metrics = options.metrics ? new GenerationMetrics() : null;
+    }
+
+    public static void main(String[] args) throws Exception {
+        final BatchOptions options;
+        try {
+            options = BatchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(BatchOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        if (options == null) {
+            System.out.print(BatchOptions.USAGE);
+            return;
+        }
+
+        final BatchMain batch = new BatchMain(options);
+        batch.run();
+        if (batch.failures > 0 || batch.imperfect > 0)
+            System.exit(1);
+    }
+
+    private void run() throws IOException, InterruptedException {
+        if (options.output != null)
+            Files.createDirectories(options.output);
+        final List<MemoryPoolMXBean> heap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        final Semaphore inFlight = new Semaphore(options.queue);
+        final BlockingQueue<Job> ready = new ArrayBlockingQueue<>(options.queue);
+        final long start = System.nanoTime();
+
+        try (ExecutorService workers = options.threads == 0
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(options.threads)) {
+            final Thread writer = Thread.ofVirtual().name("maze-writer")
+                    .start(() -> consume(ready, inFlight, workers));
+            for (int i = 0; i < options.count; ++i) {
+                inFlight.acquire();
+                if (aborted)
+                    break;
+                final int index = i;
+                final long submitted = System.nanoTime();
+                try {
+                    workers.submit(() -> {
+                        final Job job = produce(index, submitted);
+                        try {
+                            ready.put(job);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // The writer has stopped the workers.
+                    break;
+                }
+            }
+            writer.join();
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        final long peak = heap.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        report(elapsed, peak);
+    }
+
+    /**
+     * Generate a maze, and solve and validate it if requested.
+     */
+    private Job produce(int index, long submitted) {
+        final long seed = mazeSeed(options.seed, index);
+        final long[] nanos = new long[STAGES.length];
+        try {
+            long time = System.nanoTime();
+            final Maze maze;
+            if (metrics != null) {
+                maze = new Maze(options.rows, options.columns);
+                generator.generateInto(maze, seed, metrics);
+            } else
+                maze = generator.generate(options.rows, options.columns, seed);
+            nanos[GENERATE] = System.nanoTime() - time;
+
+            List<Point> solution = null;
+            if (options.solve) {
+                time = System.nanoTime();
+                solution = MazeSolver.solve(maze);
+                nanos[SOLVE] = System.nanoTime() - time;
+            }
+
+            boolean perfect = true;
+            if (options.validate) {
+                time = System.nanoTime();
+                perfect = MazeValidator.validate(maze).isPerfect();
+                nanos[VALIDATE] = System.nanoTime() - time;
+            }
+            return new Job(index, seed, submitted, maze, solution, perfect, nanos, null);
+        } catch (RuntimeException | Error e) {
+            return new Job(index, seed, submitted, null, null, false, nanos, e);
+        }
+    }
+
+    /**
+     * Write the mazes as they become ready, releasing their places in flight. If the writer cannot continue, the
+     * mazes it has not written are counted as failures and the workers are stopped.
+     */
+    private void consume(BlockingQueue<Job> ready, Semaphore inFlight, ExecutorService workers) {
+        int consumed = 0;
+        try {
+            for (; consumed < options.count; ++consumed) {
+                final Job job = ready.take();
+                try {
+                    try {
+                        if (job.error() == null && options.output != null) {
+                            final long time = System.nanoTime();
+                            write(job);
+                            job.nanos()[WRITE] = System.nanoTime() - time;
+                        }
+                    } catch (Throwable e) {
+                        System.err.println("Maze " + job.index() + " could not be written: " + e);
+                        ++failures;
+                    }
+                    if (job.error() != null) {
+                        System.err.println("Maze " + job.index() + " failed: " + job.error());
+                        ++failures;
+                    } else if (!job.perfect()) {
+                        System.err.println("Maze " + job.index() + " (seed " + job.seed() + ") is not perfect.");
+                        ++imperfect;
+                    }
+                    for (int s = 0; s < STAGES.length; ++s)
+                        stageNanos[s][consumed] = job.nanos()[s];
+                    latencyNanos[consumed] = System.nanoTime() - job.submitted();
+                } finally {
+                    inFlight.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            System.err.println("The writer failed: " + e);
+        } finally {
+            if (consumed < options.count) {
+                failures += options.count - consumed;
+                aborted = true;
+                workers.shutdownNow();
+                // Wake the submitting thread, which sees that the batch was aborted.
+                inFlight.release(options.count);
+            }
+        }
+    }
+
+    private void write(Job job) throws IOException {
+        for (final String format : options.formats) {
+            final String name = String.format("maze-%06d.%s", job.index(), format);
+            final Path path = options.output.resolve(name);
+            final MazeImageWriter.Format image = BatchOptions.imageFormat(format);
+            if (image == null)
+                MazeFile.write(path, job.maze(), options.description(), job.seed(), job.solution());
+            else
+                imageWriter.write(job.maze(), job.solution(), image, path);
+        }
+    }
+
+    private void report(long elapsed, long peakHeap) {
+        final double seconds = elapsed / 1e9;
+        final int count = options.count;
+        final double cells = (double) count * options.rows * options.columns;
+        System.out.printf(Locale.ROOT, "%-12s %d of %d x %d with %s (%d failed, %d imperfect)%n",
+                "mazes", count, options.rows, options.columns, options.description(), failures, imperfect);
+        System.out.printf(Locale.ROOT, "%-12s %.3f s on %s%n", "time", seconds,
+                options.threads == 0 ? "virtual threads" : options.threads + " threads");
+        System.out.printf(Locale.ROOT, "%-12s %.2f mazes/s, %.3g cells/s%n", "throughput",
+                count / seconds, cells / seconds);
+
+        System.out.printf(Locale.ROOT, "%-12s %10s %10s %10s %10s %10s%n", "latency ms", "mean", "p50", "p90", "p99",
+                "max");
+        for (final String stage : options.stages())
+            printLatencies(stage, stageNanos[Arrays.asList(STAGES).indexOf(stage)]);
+        printLatencies("end-to-end", latencyNanos);
+        System.out.printf(Locale.ROOT, "%-12s %.1f MiB%n", "peak heap", peakHeap / (1024.0 * 1024.0));
+        if (metrics != null)
+            reportMetrics(metrics.snapshot());
+    }
+
+    /**
+     * Report the phases of generation, with the quantiles as the upper bounds of their histogram buckets.
+     */
+    private static void reportMetrics(GenerationMetrics.Snapshot snapshot) {
+        if (snapshot.stages() > 0)
+            System.out.printf(Locale.ROOT, "%-12s %d (%d by the fallback), %.1f seeds per partition%n", "stages",
+                    snapshot.stages(), snapshot.fallbacks(), snapshot.meanSeeds());
+        System.out.printf(Locale.ROOT, "%-12s %10s %10s %10s %10s %10s%n", "phase", "count", "total ms", "mean us",
+                "p50 us", "p99 us");
+        printTiming("generation", snapshot.generation());
+        for (final GenerationListener.Phase phase : GenerationListener.Phase.values())
+            printTiming(phase.name().toLowerCase(Locale.ROOT), snapshot.phase(phase));
+    }
+
+    private static void printTiming(String name, GenerationMetrics.Timing timing) {
+        if (timing.count() == 0)
+            return;
+        System.out.printf(Locale.ROOT, "%-12s %10d %10.1f %10.1f %10.1f %10.1f%n", name, timing.count(),
+                timing.totalNanos() / 1e6, timing.meanNanos() / 1e3, timing.quantileNanos(0.5) / 1e3,
+                timing.quantileNanos(0.99) / 1e3);
+    }
+
+    private static void printLatencies(String name, long[] nanos) {
+        if (nanos.length == 0)
+            return;
+        final long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf(Locale.ROOT, "%-12s %10.3f %10.3f %10.3f %10.3f %10.3f%n", name,
+                Arrays.stream(sorted).average().orElse(0) / 1e6,
+                percentile(sorted, 50) / 1e6, percentile(sorted, 90) / 1e6, percentile(sorted, 99) / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+
+    /**
+     * The nearest-rank percentile of sorted values.
+     */
+    private static long percentile(long[] sorted, int percent) {
+        final int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * The seed of a maze, from a SplitMix64-style hash of the batch seed and its index, so that every maze can be
+     * regenerated on its own.
+     */
+    private static long mazeSeed(long seed, int index) {
+        long z = seed + (index + 1L) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * BatchOptions.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal;
+
+import org.vorpal.math.ChebyshevMetric2D;
+import org.vorpal.math.EuclideanMetric2D;
+import org.vorpal.math.ManhattanMetric2D;
+import org.vorpal.math.Metric2D;
+import org.vorpal.maze.*;
+import org.vorpal.ui.MazeImageWriter;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The command line options of BatchMain, given as --name=value or --name value, and the generator they describe.
+ */
+final class BatchOptions {
+    static final String USAGE = """
+            Usage: BatchMain [options]
+              --count=N            the number of mazes to generate (10)
+              --rows=R, --columns=C, --size=S
+                                   the dimensions of the mazes (100 x 100)
+              --seed=S             the seed from which the seed of every maze is derived (0)
+              --generator=G        voronoi, backtracker, kruskal, wilson, boruvka, binary-tree or eller (voronoi)
+              --strategy=S         the Voronoi seed strategy: random, centroid, poisson or lloyd (random)
+              --seeds=K            the Voronoi seeds per stage: a number, or area:A for one per A cells (area:40)
+              --metric=M           manhattan, euclidean, chebyshev or geodesic (manhattan)
+              --fallback=F         the Voronoi fallback: backtracker, kruskal or wilson (backtracker)
+              --parallel-cutoff=N  subdivide Voronoi regions of at least N cells in parallel (off)
+              --solve              solve every maze
+              --validate           check that every maze is perfect
+              --metrics            report the time of each phase of generation
+              --output=DIR         write the mazes to DIR
+              --format=F,...       maze, png, pgm or pbm (maze)
+              --cell=P, --wall=P   the cell and wall sizes of images in pixels (4, 1)
+              --threads=N          generate on N platform threads, or on virtual threads if 0 (0)
+              --queue=N            the most mazes in flight between generation and output (2 x processors)
+            """;
+
+    final int count;
+    final int rows;
+    final int columns;
+    final long seed;
+    final String generatorName;
+    final String strategyName;
+    final String seedsValue;
+    final String metricName;
+    final String fallbackName;
+    final int parallelCutoff;
+    final boolean solve;
+    final boolean validate;
+    final boolean metrics;
+    final Path output;
+    final List<String> formats;
+    final int cellSize;
+    final int wallSize;
+    final int threads;
+    final int queue;
+    final MazeGenerator generator;
+
+    private BatchOptions(Map<String, String> values) {
+        count = integer(values, "count", 10);
+        final int size = integer(values, "size", 100);
+        rows = integer(values, "rows", size);
+        columns = integer(values, "columns", size);
+        try {
+            seed = Long.parseLong(values.getOrDefault("seed", "0"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected an integer for --seed: " + values.get("seed"));
+        }
+        generatorName = values.getOrDefault("generator", "voronoi");
+        strategyName = values.getOrDefault("strategy", "random");
+        seedsValue = values.getOrDefault("seeds", "area:40");
+        metricName = values.getOrDefault("metric", "manhattan");
+        fallbackName = values.getOrDefault("fallback", "backtracker");
+        parallelCutoff = integer(values, "parallel-cutoff", VoronoiMazeGenerator.SEQUENTIAL);
+        solve = values.containsKey("solve");
+        validate = values.containsKey("validate");
+        metrics = values.containsKey("metrics");
+        output = values.containsKey("output") ? Path.of(values.get("output")) : null;
+        formats = List.of(values.getOrDefault("format", "maze").toLowerCase(Locale.ROOT).split(","));
+        cellSize = integer(values, "cell", 4);
+        wallSize = integer(values, "wall", 1);
+        threads = integer(values, "threads", 0);
+        queue = integer(values, "queue", 2 * Runtime.getRuntime().availableProcessors());
+
+        if (count < 0 || rows < 1 || columns < 1 || threads < 0 || queue < 1)
+            throw new IllegalArgumentException("Counts and sizes must be positive.");
+        for (final String format : formats)
+            if (!List.of("maze", "png", "pgm", "pbm").contains(format))
+                throw new IllegalArgumentException("Unknown format: " + format);
+        generator = generator();
+    }
+
+    /**
+     * Parse the arguments.
+     * @return the options, or null if help was requested
+     * @throws IllegalArgumentException if an option is unknown or malformed
+     */
+    static BatchOptions parse(String[] args) {
+        final List<String> flags = List.of("solve", "validate", "metrics", "help");
+        final List<String> names = List.of("count", "rows", "columns", "size", "seed", "generator", "strategy", "seeds",
+                "metric", "fallback", "parallel-cutoff", "output", "format", "cell", "wall", "threads", "queue");
+        final Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; ++i) {
+            if (!args[i].startsWith("--"))
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            final int equals = args[i].indexOf('=');
+            final String name = args[i].substring(2, equals < 0 ? args[i].length() : equals);
+            if (flags.contains(name) && equals < 0)
+                values.put(name, "");
+            else if (!names.contains(name))
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            else if (equals >= 0)
+                values.put(name, args[i].substring(equals + 1));
+            else if (i + 1 < args.length)
+                values.put(name, args[++i]);
+            else
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+        }
+        return values.containsKey("help") ? null : new BatchOptions(values);
+    }
+
+    /**
+     * @return the generator described by the options
+     * @throws IllegalArgumentException if the generator or one of its options is unknown or malformed
+     */
+    private MazeGenerator generator() {
+        return switch (generatorName) {
+            case "voronoi" -> new VoronoiMazeGenerator(strategy(), labeler(), fallback(), parallelCutoff);
+            case "backtracker" -> new BacktrackerMazeGenerator();
+            case "kruskal" -> new KruskalMazeGenerator();
+            case "wilson" -> new WilsonMazeGenerator();
+            case "boruvka" -> new BoruvkaMazeGenerator();
+            case "binary-tree" -> new BinaryTreeMazeGenerator();
+            case "eller" -> new EllerMazeGenerator();
+            default -> throw new IllegalArgumentException("Unknown generator: " + generatorName);
+        };
+    }
+
+    /**
+     * @return a description of the generator, for the metadata of maze files
+     */
+    String description() {
+        return generatorName.equals("voronoi")
+                ? "voronoi strategy=" + strategyName + " seeds=" + seedsValue + " metric=" + metricName
+                        + " fallback=" + fallbackName
+                : generatorName;
+    }
+
+    /**
+     * @return the names of the enabled stages, for the report
+     */
+    List<String> stages() {
+        final List<String> stages = new ArrayList<>(List.of("generate"));
+        if (solve)
+            stages.add("solve");
+        if (validate)
+            stages.add("validate");
+        if (output != null)
+            stages.add("write");
+        return stages;
+    }
+
+    private VoronoiSeedStrategy strategy() {
+        final Function<Stage, Integer> counts = seedCounts();
+        return switch (strategyName) {
+            case "random" -> new VoronoiRandomSeedStrategy(counts);
+            case "centroid" -> new VoronoiCentroidSeedStrategy(counts);
+            case "poisson" -> VoronoiPoissonDiskSeedStrategy.ofCount(counts);
+            case "lloyd" -> new VoronoiLloydSeedStrategy(counts);
+            default -> throw new IllegalArgumentException("Unknown seed strategy: " + strategyName);
+        };
+    }
+
+    private Function<Stage, Integer> seedCounts() {
+        try {
+            if (seedsValue.startsWith("area:")) {
+                final int area = Integer.parseInt(seedsValue.substring(5));
+                if (area < 1)
+                    throw new IllegalArgumentException("The area per seed must be positive.");
+                return stage -> stage.cells().size() / area;
+            }
+            final int fixed = Integer.parseInt(seedsValue);
+            return stage -> fixed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a number or area:A for --seeds: " + seedsValue);
+        }
+    }
+
+    private VoronoiLabeler labeler() {
+        if (metricName.equals("geodesic"))
+            return VoronoiLabeler.geodesic();
+        final Metric2D metric = switch (metricName) {
+            case "manhattan" -> new ManhattanMetric2D();
+            case "euclidean" -> new EuclideanMetric2D();
+            case "chebyshev" -> new ChebyshevMetric2D();
+            default -> throw new IllegalArgumentException("Unknown metric: " + metricName);
+        };
+        return VoronoiLabeler.forMetric(metric);
+    }
+
+    private RegionMazeGenerator fallback() {
+        return switch (fallbackName) {
+            case "backtracker" -> new BacktrackerMazeGenerator();
+            case "kruskal" -> new KruskalMazeGenerator();
+            case "wilson" -> new WilsonMazeGenerator();
+            default -> throw new IllegalArgumentException("Unknown fallback: " + fallbackName);
+        };
+    }
+
+    /**
+     * @return the image format for an output format name, or null for maze files
+     */
+    static MazeImageWriter.Format imageFormat(String format) {
+        return switch (format) {
+            case "png" -> MazeImageWriter.Format.PNG;
+            case "pgm" -> MazeImageWriter.Format.PGM;
+            case "pbm" -> MazeImageWriter.Format.PBM;
+            default -> null;
+        };
+    }
+
+    private static int integer(Map<String, String> values, String name, int otherwise) {
+        final String value = values.get(name);
+        if (value == null)
+            return otherwise;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected an integer for --" + name + ": " + value);
+        }
+    }
+}
@@ -10,13 +10,12 @@ import java.util.List;
 
 import javafx.application.Application;
 import javafx.scene.Scene;
-import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 import org.vorpal.math.ChebyshevMetric2D;
 import org.vorpal.math.EuclideanMetric2D;
 import org.vorpal.math.ManhattanMetric2D;
 import org.vorpal.maze.*;
-import org.vorpal.ui.MazeCanvas;
+import org.vorpal.ui.MazeViewer;
 
 public class Main extends Application {
     private static final int ROWS = 100;
@@ -37,15 +36,17 @@ public class Main extends Application {
                 new ManhattanMetric2D(),
                 //new EuclideanMetric2D(),
                 //new ChebyshevMetric2D(),
-                new BacktrackerMazeGenerator().adapt()
+                new BacktrackerMazeGenerator()
+                //new KruskalMazeGenerator()
+                //new WilsonMazeGenerator()
         );
 
         final Maze maze = gen.generate(ROWS, COLUMNS);
-        final MazeCanvas canvas = new MazeCanvas(maze, CELL_SIZE);
+        final MazeViewer viewer = new MazeViewer(maze, CELL_SIZE);
         final List<Point> sol = MazeSolver.solve(maze);
-        canvas.setSolution(sol);
+        viewer.setSolution(sol);
 
-        Scene scene = new Scene(new StackPane(canvas));
+        Scene scene = new Scene(viewer, Math.min(COLUMNS * CELL_SIZE, 1200) + 2, Math.min(ROWS * CELL_SIZE, 900) + 2);
         stage.setScene(scene);
         stage.show();
     }
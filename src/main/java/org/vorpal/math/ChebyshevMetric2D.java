@@ -10,6 +10,11 @@ import java.awt.Point;
 final public class ChebyshevMetric2D implements Metric2D {
     @Override
     public int distance(Point p1, Point p2) {
-        return Math.max(Math.abs(p1.x - p2.x), Math.abs(p1.y - p2.y));
+        return distance(p1.x, p1.y, p2.x, p2.y);
+    }
+
+    @Override
+    public int distance(int r1, int c1, int r2, int c2) {
+        return Math.max(Math.abs(r1 - r2), Math.abs(c1 - c2));
     }
 }
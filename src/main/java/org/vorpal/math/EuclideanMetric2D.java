@@ -15,8 +15,13 @@ import java.awt.Point;
 final public class EuclideanMetric2D implements Metric2D {
     @Override
     public int distance(Point p1, Point p2) {
-        final int dx = p1.x - p2.x;
-        final int dy = p1.y - p2.y;
+        return distance(p1.x, p1.y, p2.x, p2.y);
+    }
+
+    @Override
+    public int distance(int r1, int c1, int r2, int c2) {
+        final int dx = r1 - r2;
+        final int dy = c1 - c2;
         return dx * dx + dy * dy;
     }
 }
@@ -10,4 +10,12 @@ import java.awt.Point;
 @FunctionalInterface
 public interface Metric2D {
     int distance(Point p1, Point p2);
+
+    /**
+     * The distance between the cells (r1, c1) and (r2, c2), without Points.
+     * The built-in metrics compute this directly; for any other metric, it delegates to distance(Point, Point).
+     */
+    default int distance(int r1, int c1, int r2, int c2) {
+        return distance(new Point(r1, c1), new Point(r2, c2));
+    }
 }
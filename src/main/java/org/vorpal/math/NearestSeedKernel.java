@@ -0,0 +1,123 @@
+/**
+ * NearestSeedKernel.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.math;
+
+/**
+ * Finds the nearest of a fixed set of seeds for blocks of cells under one of the built-in metrics.
+ * <p>
+ * The seeds are kept as separate row and column arrays, and each block of cells is searched a vector of cells at a
+ * time with the jdk.incubator.vector API, comparing every lane against one seed per step. If the module is not
+ * available (it must be added with --add-modules jdk.incubator.vector), or the system property org.vorpal.vector is
+ * false, a scalar loop is used instead. Either way, ties go to the seed with the lowest index.
+ */
+public final class NearestSeedKernel {
+    enum Norm {
+        MANHATTAN,
+        EUCLIDEAN,
+        CHEBYSHEV
+    }
+
+    private static final boolean VECTORIZED = vectorized();
+
+    private final Norm norm;
+    private final int[] seedRows;
+    private final int[] seedColumns;
+
+    /**
+     * Create a kernel for a set of seeds. The arrays are not copied, and must not be modified afterwards.
+     * @param metric      a metric for which supports is true
+     * @param seedRows    the rows of the seeds
+     * @param seedColumns the columns of the seeds
+     */
+    public NearestSeedKernel(Metric2D metric, int[] seedRows, int[] seedColumns) {
+        if (!supports(metric))
+            throw new IllegalArgumentException("No kernel for metric: " + metric);
+        if (seedRows.length != seedColumns.length || seedRows.length == 0)
+            throw new IllegalArgumentException("There must be at least one seed, with a row and a column.");
+        this.norm = metric instanceof ManhattanMetric2D ? Norm.MANHATTAN
+                : metric instanceof EuclideanMetric2D ? Norm.EUCLIDEAN
+                : Norm.CHEBYSHEV;
+        this.seedRows = seedRows;
+        this.seedColumns = seedColumns;
+    }
+
+    /**
+     * @return true if there is a kernel for the metric: it must be one of the built-in metrics
+     */
+    public static boolean supports(Metric2D metric) {
+        return metric instanceof ManhattanMetric2D
+                || metric instanceof EuclideanMetric2D
+                || metric instanceof ChebyshevMetric2D;
+    }
+
+    /**
+     * @return true if the kernels run on the Vector API rather than the scalar fallback
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Find the nearest seed of each of a block of cells.
+     * @param rows    the rows of the cells
+     * @param columns the columns of the cells
+     * @param count   the number of cells in the block
+     * @param labels  the output array: labels[offset + i] is set to the index of the seed nearest the ith cell
+     * @param offset  the index in labels for the first cell
+     */
+    public void nearest(int[] rows, int[] columns, int count, int[] labels, int offset) {
+        nearest(rows, columns, 0, count, labels, offset);
+    }
+
+    /**
+     * Find the nearest seed of each of a range of cells.
+     * @param rows    the rows of the cells
+     * @param columns the columns of the cells
+     * @param from    the index of the first cell of the range
+     * @param count   the number of cells in the range
+     * @param labels  the output array: labels[offset + i] is set to the index of the seed nearest the cell from + i
+     * @param offset  the index in labels for the first cell
+     */
+    public void nearest(int[] rows, int[] columns, int from, int count, int[] labels, int offset) {
+        final int done = VECTORIZED ? VectorNearestSeed.nearest(norm, seedRows, seedColumns, rows, columns, from,
+                count, labels, offset) : 0;
+        for (int i = done; i < count; ++i)
+            labels[offset + i] = nearest(rows[from + i], columns[from + i]);
+    }
+
+    /**
+     * @return the index of the seed nearest a single cell
+     */
+    public int nearest(int row, int column) {
+        int nearest = 0;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (int s = 0; s < seedRows.length; ++s) {
+            final int dr = row - seedRows[s];
+            final int dc = column - seedColumns[s];
+            final int distance = switch (norm) {
+                case MANHATTAN -> Math.abs(dr) + Math.abs(dc);
+                case EUCLIDEAN -> dr * dr + dc * dc;
+                case CHEBYSHEV -> Math.max(Math.abs(dr), Math.abs(dc));
+            };
+            if (distance < nearestDistance) {
+                nearest = s;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    private static boolean vectorized() {
+        if (!Boolean.parseBoolean(System.getProperty("org.vorpal.vector", "true")))
+            return false;
+        try {
+            return VectorNearestSeed.lanes() > 1;
+        } catch (LinkageError e) {
+            // The jdk.incubator.vector module is not present.
+            return false;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * VectorNearestSeed.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.math;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The Vector API implementation of NearestSeedKernel, which is only loaded when jdk.incubator.vector is present.
+ * Each metric has its own loop, as the vector operations are only compiled to SIMD instructions when they are
+ * constant at the call site.
+ */
+final class VectorNearestSeed {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private VectorNearestSeed() {}
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    /**
+     * Label the cells of the block that fill whole vectors: cell from + i is labelled in labels[offset + i].
+     * @return the number of cells labelled, which leaves fewer than a vector of cells at the end of the block
+     */
+    static int nearest(NearestSeedKernel.Norm norm, int[] seedRows, int[] seedColumns,
+                       int[] rows, int[] columns, int from, int count, int[] labels, int offset) {
+        final int end = from + SPECIES.loopBound(count);
+        final int shift = offset - from;
+        switch (norm) {
+            case MANHATTAN -> manhattan(seedRows, seedColumns, rows, columns, from, end, labels, shift);
+            case EUCLIDEAN -> euclidean(seedRows, seedColumns, rows, columns, from, end, labels, shift);
+            case CHEBYSHEV -> chebyshev(seedRows, seedColumns, rows, columns, from, end, labels, shift);
+        }
+        return end - from;
+    }
+
+    private static void manhattan(int[] seedRows, int[] seedColumns,
+                                  int[] rows, int[] columns, int from, int end, int[] labels, int shift) {
+        for (int i = from; i < end; i += SPECIES.length()) {
+            final IntVector r = IntVector.fromArray(SPECIES, rows, i);
+            final IntVector c = IntVector.fromArray(SPECIES, columns, i);
+            IntVector best = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+            IntVector label = IntVector.zero(SPECIES);
+            for (int s = 0; s < seedRows.length; ++s) {
+                final IntVector distance = r.sub(seedRows[s]).abs().add(c.sub(seedColumns[s]).abs());
+                final VectorMask<Integer> closer = distance.lt(best);
+                best = best.blend(distance, closer);
+                label = label.blend(s, closer);
+            }
+            label.intoArray(labels, shift + i);
+        }
+    }
+
+    private static void euclidean(int[] seedRows, int[] seedColumns,
+                                  int[] rows, int[] columns, int from, int end, int[] labels, int shift) {
+        for (int i = from; i < end; i += SPECIES.length()) {
+            final IntVector r = IntVector.fromArray(SPECIES, rows, i);
+            final IntVector c = IntVector.fromArray(SPECIES, columns, i);
+            IntVector best = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+            IntVector label = IntVector.zero(SPECIES);
+            for (int s = 0; s < seedRows.length; ++s) {
+                final IntVector dr = r.sub(seedRows[s]);
+                final IntVector dc = c.sub(seedColumns[s]);
+                final IntVector distance = dr.mul(dr).add(dc.mul(dc));
+                final VectorMask<Integer> closer = distance.lt(best);
+                best = best.blend(distance, closer);
+                label = label.blend(s, closer);
+            }
+            label.intoArray(labels, shift + i);
+        }
+    }
+
+    private static void chebyshev(int[] seedRows, int[] seedColumns,
+                                  int[] rows, int[] columns, int from, int end, int[] labels, int shift) {
+        for (int i = from; i < end; i += SPECIES.length()) {
+            final IntVector r = IntVector.fromArray(SPECIES, rows, i);
+            final IntVector c = IntVector.fromArray(SPECIES, columns, i);
+            IntVector best = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+            IntVector label = IntVector.zero(SPECIES);
+            for (int s = 0; s < seedRows.length; ++s) {
+                final IntVector distance = r.sub(seedRows[s]).abs().max(c.sub(seedColumns[s]).abs());
+                final VectorMask<Integer> closer = distance.lt(best);
+                best = best.blend(distance, closer);
+                label = label.blend(s, closer);
+            }
+            label.intoArray(labels, shift + i);
+        }
+    }
+}
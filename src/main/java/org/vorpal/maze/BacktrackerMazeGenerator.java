@@ -5,59 +5,70 @@
 
 package org.vorpal.maze;
 
-import java.awt.Point;
-import java.util.*;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * A simple depth-first recursive backtracker maze generator.
+ * It works directly over any CellSet, tracking cells by their index in the set, so it can also finish the regions
+ * of a VoronoiMazeGenerator. If the cells are not connected, each of their components gets its own tree.
  */
-public class BacktrackerMazeGenerator implements MazeGenerator {
-    private final Random rnd = new Random();
-
+public class BacktrackerMazeGenerator implements MazeGenerator, RegionMazeGenerator {
     @Override
-    public Maze generate(int rows, int columns) {
+    public Maze generate(int rows, int columns, long seed) {
         final Maze maze = new Maze(rows, columns);
-        final Set<Point> visited = new HashSet<>();
-        final Deque<Point> stack = new ArrayDeque<>();
-
-        // Start at the top-left corner.
-        final Point start = new Point(0, 0);
-        stack.push(start);
-        visited.add(start);
-
-        while (!stack.isEmpty()) {
-            final Point cell = stack.peek();
-
-            // Collect the unvisited neighbours.
-            final List<Maze.Direction> neighbours = new ArrayList<>();
-            if (cell.x > 0 && !visited.contains(Maze.neighbour(cell, Maze.Direction.NORTH)))
-                neighbours.add(Maze.Direction.NORTH);
-            if (cell.y < columns - 1 && !visited.contains(Maze.neighbour(cell, Maze.Direction.EAST)))
-                neighbours.add(Maze.Direction.EAST);
-            if (cell.x < rows - 1 && !visited.contains(Maze.neighbour(cell, Maze.Direction.SOUTH)))
-                neighbours.add(Maze.Direction.SOUTH);
-            if (cell.y > 0 && !visited.contains(Maze.neighbour(cell,  Maze.Direction.WEST)))
-                neighbours.add(Maze.Direction.WEST);
-
-            if (!neighbours.isEmpty()) {
-                // Choose a random direction.
-                final Maze.Direction dir = neighbours.get(rnd.nextInt(neighbours.size()));
-                Point next;
-                switch (dir) {
-                    case NORTH -> next = Maze.neighbour(cell, Maze.Direction.NORTH);
-                    case EAST  -> next = Maze.neighbour(cell, Maze.Direction.EAST);
-                    case SOUTH -> next = Maze.neighbour(cell, Maze.Direction.SOUTH);
-                    case WEST  -> next = Maze.neighbour(cell, Maze.Direction.WEST);
-                    default    -> throw new IllegalStateException("Unexpected value: " + dir);
-                }
-
-                maze.carveWall(cell, dir);
-                visited.add(next);
-                stack.push(next);
-            } else
-                stack.pop();
+        generateInto(maze, seed);
+        return maze;
+    }
+
+    @Override
+    public void generateInto(Maze maze, long seed) {
+        carve(maze, CellSet.full(maze.getRows(), maze.getColumns()), new SplittableRandom(seed));
+    }
+
+    @Override
+    public void carve(Maze maze, CellSet cells, RandomGenerator rnd) {
+        final CellNeighbours graph = new CellNeighbours(cells);
+        final int n = graph.size();
+        final boolean[] visited = new boolean[n];
+        final int[] stack = new int[n];
+        final int[] neighbours = new int[4];
+        final int[] unvisited = new int[4];
+
+        for (int start = 0; start < n; ++start) {
+            if (visited[start])
+                continue;
+            int top = 0;
+            stack[top++] = start;
+            visited[start] = true;
+
+            while (top > 0) {
+                final int index = stack[top - 1];
+
+                // Collect the unvisited neighbours.
+                final int count = graph.neighbours(index, neighbours);
+                int open = 0;
+                for (int i = 0; i < count; ++i)
+                    if (!visited[neighbours[i]])
+                        unvisited[open++] = neighbours[i];
+
+                if (open > 0) {
+                    // Carve to a random neighbour.
+                    final int next = unvisited[rnd.nextInt(open)];
+                    graph.carve(maze, index, next);
+                    visited[next] = true;
+                    stack[top++] = next;
+                } else
+                    --top;
+            }
         }
+    }
 
-        return maze;
+    /**
+     * @return this generator, which already carves regions directly
+     */
+    @Override
+    public RegionMazeGenerator adapt() {
+        return this;
     }
 }
@@ -5,39 +5,43 @@
 
 package org.vorpal.maze;
 
-import java.awt.*;
-import java.util.Random;
-import java.util.stream.IntStream;
+import java.util.SplittableRandom;
 
 /**
  * A simple test to produce a simple Maze for testing purposes.
+ * Cells are visited in row order, so the maze can be carved straight into a file-backed Maze.
  */
 final public class BinaryTreeMazeGenerator implements MazeGenerator {
     @Override
-    public Maze generate(int rows, int columns) {
-        final Random rnd = new Random();
+    public Maze generate(int rows, int columns, long seed) {
         final Maze maze = new Maze(rows, columns);
+        generateInto(maze, seed);
+        return maze;
+    }
 
-        IntStream.range(0, rows).forEach(r -> {
-                    final boolean canCarveSouth = r < rows - 1;
-                    IntStream.range(0, columns).forEach(c -> {
-                        // Do not carve out the bottom-right corner.
-                        final boolean canCarveEast = c < columns - 1;
-                        final Point cell = new Point(r, c);
-                        if (canCarveEast || canCarveSouth) {
-                            if (canCarveEast && canCarveSouth)
-                                if (rnd.nextBoolean())
-                                    maze.carveWall(cell, Maze.Direction.EAST);
-                                else
-                                    maze.carveWall(cell, Maze.Direction.SOUTH);
-                            else if (canCarveEast)
-                                maze.carveWall(cell, Maze.Direction.EAST);
-                            else // canCarveSouth
-                                maze.carveWall(cell, Maze.Direction.SOUTH);
-                        }
-                    });
+    @Override
+    public void generateInto(Maze maze, long seed) {
+        final SplittableRandom rnd = new SplittableRandom(seed);
+        final int rows = maze.getRows();
+        final int columns = maze.getColumns();
+
+        for (int r = 0; r < rows; ++r) {
+            final boolean canCarveSouth = r < rows - 1;
+            for (int c = 0; c < columns; ++c) {
+                // Do not carve out the bottom-right corner.
+                final boolean canCarveEast = c < columns - 1;
+                if (canCarveEast || canCarveSouth) {
+                    if (canCarveEast && canCarveSouth)
+                        if (rnd.nextBoolean())
+                            maze.carveWall(r, c, Maze.Direction.EAST);
+                        else
+                            maze.carveWall(r, c, Maze.Direction.SOUTH);
+                    else if (canCarveEast)
+                        maze.carveWall(r, c, Maze.Direction.EAST);
+                    else // canCarveSouth
+                        maze.carveWall(r, c, Maze.Direction.SOUTH);
                 }
-        );
-        return maze;
+            }
+        }
     }
 }
@@ -0,0 +1,205 @@
+/**
+ * BoruvkaMazeGenerator.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A parallel maze generator that carves the minimum spanning tree of the grid under random wall weights by Borůvka's
+ * algorithm.
+ * <p>
+ * Each wall gets a weight from a counter-based generator, hashing the seed with the wall's id, and ties are broken
+ * by the id, so the minimum spanning tree is unique: the maze depends only on the seed, whatever the number of
+ * threads and however they are scheduled. In each round, every component finds its lightest wall to another
+ * component, and those walls are carved, which at least halves the number of components. The rows are split into
+ * bands that are processed in parallel, and each band drops the walls that have become internal to a component, so
+ * later rounds only look at the walls between components. The components are tracked by a lock-free union-find
+ * over the cell ids, whose roots are linked by CAS and whose paths are halved by CAS.
+ */
+final public class BoruvkaMazeGenerator implements MazeGenerator {
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a generator that runs in the common pool.
+     */
+    public BoruvkaMazeGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a generator that runs in the given pool.
+     */
+    public BoruvkaMazeGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public Maze generate(int rows, int columns, long seed) {
+        final Maze maze = new Maze(rows, columns);
+        generateInto(maze, seed);
+        return maze;
+    }
+
+    @Override
+    public void generateInto(Maze maze, long seed) {
+        final int rows = maze.getRows();
+        final int columns = maze.getColumns();
+        final long cellCount = (long) rows * columns;
+        if (cellCount > Integer.MAX_VALUE / 2)
+            throw new IllegalArgumentException("Maze has too many cells for int wall ids.");
+        final int n = (int) cellCount;
+        final int bands = Math.min(rows, 4 * pool.getParallelism());
+
+        // The wall ids are 2 * cell for the east wall of the cell and 2 * cell + 1 for its south wall. Each band
+        // keeps the walls of its cells that still separate two components at the start of its range of the array.
+        final int[] walls = new int[2 * n];
+        final int[] wallCounts = new int[bands];
+        final int[] parent = new int[n];
+        final int[] lightest = new int[n];
+
+        forEachBand(bands, b -> {
+            final int fromRow = bandStart(b, bands, rows);
+            final int toRow = bandStart(b + 1, bands, rows);
+            int count = 0;
+            for (int r = fromRow; r < toRow; ++r)
+                for (int c = 0; c < columns; ++c) {
+                    final int cell = r * columns + c;
+                    parent[cell] = cell;
+                    if (c < columns - 1)
+                        walls[2 * fromRow * columns + count++] = 2 * cell;
+                    if (r < rows - 1)
+                        walls[2 * fromRow * columns + count++] = 2 * cell + 1;
+                }
+            wallCounts[b] = count;
+        });
+
+        boolean merged = true;
+        while (merged) {
+            // Find the lightest wall out of every component, dropping the walls inside components.
+            forEachBand(bands, b -> {
+                final int from = bandStart(b, bands, rows) * columns;
+                final int to = bandStart(b + 1, bands, rows) * columns;
+                for (int cell = from; cell < to; ++cell)
+                    lightest[cell] = -1;
+            });
+            forEachBand(bands, b -> {
+                final int base = 2 * bandStart(b, bands, rows) * columns;
+                int kept = 0;
+                for (int i = 0; i < wallCounts[b]; ++i) {
+                    final int wall = walls[base + i];
+                    final int cell = wall >>> 1;
+                    final int r1 = find(parent, cell);
+                    final int r2 = find(parent, other(wall, columns));
+                    if (r1 == r2)
+                        continue;
+                    walls[base + kept++] = wall;
+                    final long key = key(seed, wall);
+                    offer(lightest, r1, wall, key, seed);
+                    offer(lightest, r2, wall, key, seed);
+                }
+                wallCounts[b] = kept;
+            });
+
+            // Carve the lightest walls. Two components may pick the same wall, in which case the second union fails.
+            final boolean[] unions = new boolean[bands];
+            forEachBand(bands, b -> {
+                final int from = bandStart(b, bands, rows) * columns;
+                final int to = bandStart(b + 1, bands, rows) * columns;
+                for (int cell = from; cell < to; ++cell) {
+                    final int wall = lightest[cell];
+                    if (wall >= 0 && union(parent, wall >>> 1, other(wall, columns))) {
+                        final int c = wall >>> 1;
+                        maze.carveWall(c / columns, c % columns,
+                                (wall & 1) == 0 ? Maze.Direction.EAST : Maze.Direction.SOUTH);
+                        unions[b] = true;
+                    }
+                }
+            });
+
+            merged = false;
+            for (final boolean union : unions)
+                merged |= union;
+        }
+    }
+
+    private void forEachBand(int bands, IntConsumer body) {
+        pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, bands).parallel().forEach(body)));
+    }
+
+    private static int bandStart(int band, int bands, int rows) {
+        return (int) ((long) band * rows / bands);
+    }
+
+    private static int other(int wall, int columns) {
+        final int cell = wall >>> 1;
+        return (wall & 1) == 0 ? cell + 1 : cell + columns;
+    }
+
+    /**
+     * The key of a wall: its weight, from the SplitMix64 finalizer of the seed and the wall id, in the high bits, and
+     * the wall id, which makes every key distinct, in the low 31 bits.
+     */
+    private static long key(long seed, int wall) {
+        long z = seed + (wall + 1L) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 32) << 31 | wall;
+    }
+
+    /**
+     * Make a wall the lightest wall of a component if it is lighter than the current one.
+     */
+    private static void offer(int[] lightest, int root, int wall, long key, long seed) {
+        int current = (int) INTS.getVolatile(lightest, root);
+        while (current < 0 || key < key(seed, current)) {
+            final int witness = (int) INTS.compareAndExchange(lightest, root, current, wall);
+            if (witness == current)
+                return;
+            current = witness;
+        }
+    }
+
+    /**
+     * Find the root of a cell, halving the path by CAS: a cell's parent only ever moves closer to its root.
+     */
+    private static int find(int[] parent, int x) {
+        int p = (int) INTS.getVolatile(parent, x);
+        while (p != x) {
+            final int grandparent = (int) INTS.getVolatile(parent, p);
+            if (grandparent != p)
+                INTS.compareAndSet(parent, x, p, grandparent);
+            x = p;
+            p = grandparent;
+        }
+        return x;
+    }
+
+    /**
+     * Join the components of two cells by linking the larger root under the smaller by CAS, retrying if either root
+     * was linked elsewhere in the meantime.
+     * @return false if the cells were already connected
+     */
+    private static boolean union(int[] parent, int a, int b) {
+        while (true) {
+            final int ra = find(parent, a);
+            final int rb = find(parent, b);
+            if (ra == rb)
+                return false;
+            final int child = Math.max(ra, rb);
+            final int root = Math.min(ra, rb);
+            if (INTS.compareAndSet(parent, child, child, root))
+                return true;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * BruteForceVoronoiLabeler.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import org.vorpal.math.Metric2D;
+import org.vorpal.math.NearestSeedKernel;
+
+import java.awt.Point;
+
+/**
+ * Labels each cell by measuring its distance to every seed, which costs O(cells x seeds).
+ * This works for any Metric2D, and serves as the reference implementation for the distance transforms.
+ * The built-in metrics are searched by a NearestSeedKernel, a block of cells at a time; other metrics are called
+ * through distance(Point, Point) for every pair of a cell and a seed.
+ */
+final public class BruteForceVoronoiLabeler implements VoronoiLabeler {
+    private static final int BLOCK = 1024;
+
+    private final Metric2D metric;
+
+    public BruteForceVoronoiLabeler(Metric2D metric) {
+        this.metric = metric;
+    }
+
+    @Override
+    public void label(CellSet cells, CellSet seeds, int[] labels) {
+        if (NearestSeedKernel.supports(metric)) {
+            labelBlocks(cells, seeds, labels);
+            return;
+        }
+
+        final int k = seeds.size();
+        final Point[] seedPoints = new Point[k];
+        for (int i = 0; i < k; ++i)
+            seedPoints[i] = seeds.toPoint(seeds.get(i));
+
+        // A single scratch Point is reused for the cells.
+        final Point cellPoint = new Point();
+        final int n = cells.size();
+        for (int i = 0; i < n; ++i) {
+            final int id = cells.get(i);
+            cellPoint.setLocation(cells.row(id), cells.column(id));
+            int nearest = 0;
+            int nearestDistance = metric.distance(seedPoints[0], cellPoint);
+            for (int j = 1; j < k; ++j) {
+                final int distance = metric.distance(seedPoints[j], cellPoint);
+                if (distance < nearestDistance) {
+                    nearest = j;
+                    nearestDistance = distance;
+                }
+            }
+            labels[i] = nearest;
+        }
+    }
+
+    private void labelBlocks(CellSet cells, CellSet seeds, int[] labels) {
+        final int k = seeds.size();
+        final int[] seedRows = new int[k];
+        final int[] seedColumns = new int[k];
+        for (int i = 0; i < k; ++i) {
+            final int id = seeds.get(i);
+            seedRows[i] = seeds.row(id);
+            seedColumns[i] = seeds.column(id);
+        }
+        final NearestSeedKernel kernel = new NearestSeedKernel(metric, seedRows, seedColumns);
+
+        final int n = cells.size();
+        final int columns = cells.gridColumns();
+        final int[] rows = new int[Math.min(BLOCK, n)];
+        final int[] cols = new int[rows.length];
+        for (int start = 0; start < n; start += BLOCK) {
+            final int count = Math.min(BLOCK, n - start);
+            for (int i = 0; i < count; ++i) {
+                final int id = cells.get(start + i);
+                rows[i] = id / columns;
+                cols[i] = id - rows[i] * columns;
+            }
+            kernel.nearest(rows, cols, count, labels, start);
+        }
+    }
+}
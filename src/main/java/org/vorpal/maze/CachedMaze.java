@@ -0,0 +1,51 @@
+/**
+ * CachedMaze.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * An immutable Maze held by a MazeCache, along with its solution from the upper-left to the bottom-right corner,
+ * which is computed on first request and then kept. Instances are safe to share across threads.
+ */
+public final class CachedMaze {
+    private final Maze maze;
+    private volatile List<Point> solution;
+
+    CachedMaze(Maze maze, List<Point> solution) {
+        if (!maze.isReadOnly())
+            throw new IllegalArgumentException("Cached mazes must be read-only.");
+        this.maze = maze;
+        this.solution = solution;
+    }
+
+    public Maze maze() {
+        return maze;
+    }
+
+    /**
+     * @return the immutable solution of the maze, as per MazeSolver.solve
+     */
+    public List<Point> solution() {
+        List<Point> result = solution;
+        if (result == null) {
+            synchronized (this) {
+                result = solution;
+                if (result == null)
+                    solution = result = MazeSolver.solve(maze);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the solution if it has already been computed, and null otherwise
+     */
+    List<Point> solutionIfComputed() {
+        return solution;
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * CachingMazeGenerator.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+/**
+ * A MazeGenerator that serves mazes from a MazeCache, generating them with a delegate only on a miss.
+ * The mazes it returns are read-only and may be shared with other callers.
+ */
+public final class CachingMazeGenerator implements MazeGenerator {
+    private final MazeGenerator generator;
+    private final String configuration;
+    private final MazeCache cache;
+
+    /**
+     * @param generator     the delegate generator
+     * @param configuration a stable description of the delegate's configuration: two generators sharing a cache
+     *                      must have the same configuration only if they produce the same mazes from the same seeds
+     * @param cache         the cache
+     */
+    public CachingMazeGenerator(MazeGenerator generator, String configuration, MazeCache cache) {
+        this.generator = generator;
+        this.configuration = configuration;
+        this.cache = cache;
+    }
+
+    @Override
+    public Maze generate(int rows, int columns, long seed) {
+        return cached(rows, columns, seed).maze();
+    }
+
+    /**
+     * @return the cached maze, through which its solution is also cached
+     */
+    public CachedMaze cached(int rows, int columns, long seed) {
+        return cache.get(new MazeKey(configuration, rows, columns, seed), generator);
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * CellNeighbours.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.Arrays;
+
+/**
+ * The 4-neighbourhood of a CellSet, by index, so that graph searches over the set need no lookups.
+ * <p>
+ * Since the ids are in row-major order, the cell west of a cell is the previous cell in the set if it exists, and
+ * the cell east of it is the next. The cell north of each cell is found by a single merge of the set against itself
+ * shifted by a row, so the whole index is built in linear time, and the cells to the south are its inverse.
+ */
+final class CellNeighbours {
+    private final CellSet cells;
+    private final int[] north;
+    private final int[] south;
+
+    CellNeighbours(CellSet cells) {
+        this.cells = cells;
+        final int n = cells.size();
+        final int columns = cells.gridColumns();
+        north = new int[n];
+        south = new int[n];
+        Arrays.fill(south, -1);
+        int j = 0;
+        for (int i = 0; i < n; ++i) {
+            final int above = cells.get(i) - columns;
+            while (j < i && cells.get(j) < above)
+                ++j;
+            north[i] = j < i && cells.get(j) == above ? j : -1;
+            if (north[i] >= 0)
+                south[north[i]] = i;
+        }
+    }
+
+    int size() {
+        return north.length;
+    }
+
+    /**
+     * @return the index of the neighbour of the cell at an index in a direction, or -1 if it is not in the set
+     */
+    int neighbour(int index, Maze.Direction direction) {
+        return switch (direction) {
+            case NORTH -> north[index];
+            case SOUTH -> south[index];
+            case EAST -> {
+                final int id = cells.get(index);
+                yield index + 1 < north.length && cells.get(index + 1) == id + 1
+                        && cells.column(id) != cells.gridColumns() - 1 ? index + 1 : -1;
+            }
+            case WEST -> {
+                final int id = cells.get(index);
+                yield index > 0 && cells.get(index - 1) == id - 1 && cells.column(id) != 0 ? index - 1 : -1;
+            }
+        };
+    }
+
+    /**
+     * Collect the indices of the neighbours of the cell at an index.
+     * @param neighbours an array of at least four elements to receive the indices
+     * @return the number of neighbours
+     */
+    int neighbours(int index, int[] neighbours) {
+        final int id = cells.get(index);
+        final int column = cells.column(id);
+        int count = 0;
+        if (north[index] >= 0)
+            neighbours[count++] = north[index];
+        if (column != cells.gridColumns() - 1 && index + 1 < north.length && cells.get(index + 1) == id + 1)
+            neighbours[count++] = index + 1;
+        if (south[index] >= 0)
+            neighbours[count++] = south[index];
+        if (column != 0 && index > 0 && cells.get(index - 1) == id - 1)
+            neighbours[count++] = index - 1;
+        return count;
+    }
+
+    /**
+     * Carve the wall between the neighbouring cells at two indices.
+     */
+    void carve(Maze maze, int from, int to) {
+        final int id = cells.get(from);
+        final int other = cells.get(to);
+        final int row = cells.row(id);
+        final int column = cells.column(id);
+        // Vertical neighbours are checked first since, in a single column, they are also one id apart.
+        final int columns = cells.gridColumns();
+        if (other == id + columns)
+            maze.carveWall(row, column, Maze.Direction.SOUTH);
+        else if (other == id - columns)
+            maze.carveWall(row, column, Maze.Direction.NORTH);
+        else if (other == id + 1)
+            maze.carveWall(row, column, Maze.Direction.EAST);
+        else
+            maze.carveWall(row, column, Maze.Direction.WEST);
+    }
+}
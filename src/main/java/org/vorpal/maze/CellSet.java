@@ -0,0 +1,151 @@
+/**
+ * CellSet.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable set of cells of a gridRows x gridColumns grid.
+ * A cell is represented by its id, row * gridColumns + column, so that no objects need to be
+ * allocated per cell. The cells are always ordered by increasing id (i.e. in row-major order),
+ * and can be accessed by their index in that order.
+ */
+public sealed interface CellSet permits RectangleCellSet, SortedCellSet {
+    /**
+     * Create the CellSet comprising an entire grid.
+     * @param rows    the number of rows in the grid
+     * @param columns the number of columns in the grid
+     * @return the implicit CellSet of all rows * columns cells
+     */
+    static CellSet full(int rows, int columns) {
+        return new RectangleCellSet(rows, columns, 0, 0, rows, columns);
+    }
+
+    /**
+     * Create the CellSet comprising a rectangle of a grid.
+     * @param gridRows    the number of rows in the grid
+     * @param gridColumns the number of columns in the grid
+     * @param row         the top row of the rectangle
+     * @param column      the leftmost column of the rectangle
+     * @param height      the number of rows in the rectangle
+     * @param width       the number of columns in the rectangle
+     * @return the implicit CellSet of the cells in the rectangle
+     */
+    static CellSet rectangle(int gridRows, int gridColumns, int row, int column, int height, int width) {
+        return new RectangleCellSet(gridRows, gridColumns, row, column, height, width);
+    }
+
+    /**
+     * Create a CellSet from arbitrary cell ids, which may be unordered and contain duplicates.
+     * @param gridRows    the number of rows in the grid
+     * @param gridColumns the number of columns in the grid
+     * @param ids         the cell ids
+     * @return the CellSet of the distinct ids
+     */
+    static CellSet of(int gridRows, int gridColumns, int... ids) {
+        final int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; ++i)
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[n++] = sorted[i];
+        return new SortedCellSet(gridRows, gridColumns, n == sorted.length ? sorted : Arrays.copyOf(sorted, n));
+    }
+
+    /**
+     * Create a CellSet directly over an array of strictly increasing cell ids. The array is not copied, and must
+     * not be modified afterwards.
+     */
+    static CellSet ofSorted(int gridRows, int gridColumns, int[] ids) {
+        return new SortedCellSet(gridRows, gridColumns, ids);
+    }
+
+    /**
+     * @return the number of rows in the underlying grid
+     */
+    int gridRows();
+
+    /**
+     * @return the number of columns in the underlying grid, which is the stride of the cell ids
+     */
+    int gridColumns();
+
+    /**
+     * @return the number of cells in the set
+     */
+    int size();
+
+    /**
+     * @param index the index, in [0, size())
+     * @return the id of the cell at the given index
+     */
+    int get(int index);
+
+    /**
+     * @param id a cell id
+     * @return the index of the cell with the given id, or a negative value if it is not in the set
+     */
+    int indexOf(int id);
+
+    int minRow();
+    int maxRow();
+    int minColumn();
+    int maxColumn();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    default boolean contains(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    default boolean contains(int row, int column) {
+        return row >= 0 && row < gridRows() && column >= 0 && column < gridColumns() && contains(id(row, column));
+    }
+
+    default int id(int row, int column) {
+        return row * gridColumns() + column;
+    }
+
+    default int row(int id) {
+        return id / gridColumns();
+    }
+
+    default int column(int id) {
+        return id % gridColumns();
+    }
+
+    /**
+     * Convert a cell id to a Point (with x the row and y the column) for use with the Point based APIs.
+     */
+    default Point toPoint(int id) {
+        return new Point(row(id), column(id));
+    }
+
+    default void forEach(IntConsumer action) {
+        final int n = size();
+        for (int i = 0; i < n; ++i)
+            action.accept(get(i));
+    }
+
+    /**
+     * @return the cell ids in increasing order
+     */
+    default IntStream stream() {
+        return IntStream.range(0, size()).map(this::get);
+    }
+
+    /**
+     * @return a fresh array of the cell ids in increasing order
+     */
+    default int[] toArray() {
+        return stream().toArray();
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * ChebyshevVoronoiLabeler.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+/**
+ * An exact Voronoi labeler for the Chebyshev metric.
+ * <p>
+ * Rotating the grid by 45 degrees with u = r + c and v = r - c turns the Chebyshev distance into half of the
+ * Manhattan distance in (u, v), so the separable Manhattan transform is run over the rotated bounding box, which has
+ * (rows + columns - 1)^2 points, and the labels are read back at the points corresponding to the stage's cells.
+ */
+final class ChebyshevVoronoiLabeler implements VoronoiLabeler {
+    @Override
+    public void label(CellSet cells, CellSet seeds, int[] labels) {
+        final int minR = cells.minRow();
+        final int minC = cells.minColumn();
+        final int height = cells.maxRow() - minR + 1;
+        final int width = cells.maxColumn() - minC + 1;
+        final int side = height + width - 1;
+
+        // Seed coordinates in the rotated grid, offset so that v is non-negative.
+        final int k = seeds.size();
+        final int[] seedV = new int[k];
+        final int[] seedU = new int[k];
+        for (int i = 0; i < k; ++i) {
+            final int r = seeds.row(seeds.get(i)) - minR;
+            final int c = seeds.column(seeds.get(i)) - minC;
+            seedU[i] = r + c;
+            seedV[i] = r - c + width - 1;
+        }
+        final ColumnSeeds columnSeeds = new ColumnSeeds(side, seedV, seedU);
+
+        final int[] g = new int[side];
+        final int[] gLabel = new int[side];
+        final int[] distance = new int[side];
+        final int[] rotatedLabels = new int[side];
+        final int[] boxLabels = new int[height * width];
+
+        for (int v = 0; v < side; ++v) {
+            columnSeeds.row(v, g, gLabel);
+            ManhattanVoronoiLabeler.nearest(g, gLabel, side, distance, rotatedLabels);
+
+            // The cells on this diagonal are those with r - c = dv.
+            final int dv = v - (width - 1);
+            final int fromC = Math.max(0, -dv);
+            final int toC = Math.min(width - 1, height - 1 - dv);
+            for (int c = fromC; c <= toC; ++c)
+                boxLabels[(c + dv) * width + c] = rotatedLabels[2 * c + dv];
+        }
+
+        final int n = cells.size();
+        for (int i = 0; i < n; ++i) {
+            final int id = cells.get(i);
+            labels[i] = boxLabels[(cells.row(id) - minR) * width + cells.column(id) - minC];
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * ChunkedMaze.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An endless, read-only maze over the whole plane of long coordinates, generated lazily in fixed-size tiles.
+ * <p>
+ * Each tile is a perfect maze produced by the tile generator from a seed derived only from the world seed and the
+ * tile's coordinates, so a tile is the same whenever it is generated. The tiles are joined into a tree: every tile
+ * but the origin tile (0, 0) has one parent, the neighbouring tile one step closer to the origin horizontally or
+ * vertically (chosen at random when both are possible), and a single door is carved in the border between a tile
+ * and its parent at a random position. Since parents are strictly closer to the origin, the tile graph is connected
+ * and acyclic, so the whole world is a perfect maze.
+ * <p>
+ * Only the most recently used tiles are kept in memory, and reads fault in the tiles they need.
+ */
+public final class ChunkedMaze {
+    /**
+     * The coordinates of a tile.
+     */
+    public record Tile(long row, long column) {
+    }
+
+    private static final long PARENT_SALT = 0x5DEECE66DL;
+    private static final long DOOR_SALT = 0x2545F4914F6CDD1DL;
+
+    private final MazeGenerator tileGenerator;
+    private final int tileRows;
+    private final int tileColumns;
+    private final long worldSeed;
+    private final int maximumTiles;
+    private final LinkedHashMap<Tile, Maze> tiles;
+    private final LongAdder generated = new LongAdder();
+
+    /**
+     * @param tileGenerator the generator for the tiles, e.g. a VoronoiMazeGenerator
+     * @param tileRows      the number of rows in a tile
+     * @param tileColumns   the number of columns in a tile
+     * @param worldSeed     the seed from which the entire world is derived
+     * @param maximumTiles  the maximum number of tiles to keep in memory
+     */
+    public ChunkedMaze(MazeGenerator tileGenerator, int tileRows, int tileColumns, long worldSeed, int maximumTiles) {
+        if (tileRows < 1 || tileColumns < 1 || maximumTiles < 1)
+            throw new IllegalArgumentException("Tiles must be non-empty, and at least one must be kept.");
+        this.tileGenerator = tileGenerator;
+        this.tileRows = tileRows;
+        this.tileColumns = tileColumns;
+        this.worldSeed = worldSeed;
+        this.maximumTiles = maximumTiles;
+        this.tiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Tile, Maze> eldest) {
+                return size() > ChunkedMaze.this.maximumTiles;
+            }
+        };
+    }
+
+    public int getTileRows() {
+        return tileRows;
+    }
+
+    public int getTileColumns() {
+        return tileColumns;
+    }
+
+    /**
+     * @return the number of tiles generated so far, including tiles regenerated after eviction
+     */
+    public long tilesGenerated() {
+        return generated.sum();
+    }
+
+    /**
+     * @return the tile containing the given cell
+     */
+    public Tile tileOf(long row, long column) {
+        return new Tile(Math.floorDiv(row, tileRows), Math.floorDiv(column, tileColumns));
+    }
+
+    public boolean hasWall(long row, long column, Maze.Direction direction) {
+        final long tileRow = Math.floorDiv(row, tileRows);
+        final long tileColumn = Math.floorDiv(column, tileColumns);
+        final int r = Math.floorMod(row, tileRows);
+        final int c = Math.floorMod(column, tileColumns);
+
+        // Walls crossing into another tile are open only at the door between a tile and its parent.
+        return switch (direction) {
+            case NORTH -> r == 0
+                    ? !hasDoor(tileRow - 1, tileColumn, tileRow, tileColumn, c)
+                    : tile(tileRow, tileColumn).hasWall(r, c, direction);
+            case SOUTH -> r == tileRows - 1
+                    ? !hasDoor(tileRow, tileColumn, tileRow + 1, tileColumn, c)
+                    : tile(tileRow, tileColumn).hasWall(r, c, direction);
+            case WEST -> c == 0
+                    ? !hasDoor(tileRow, tileColumn - 1, tileRow, tileColumn, r)
+                    : tile(tileRow, tileColumn).hasWall(r, c, direction);
+            case EAST -> c == tileColumns - 1
+                    ? !hasDoor(tileRow, tileColumn, tileRow, tileColumn + 1, r)
+                    : tile(tileRow, tileColumn).hasWall(r, c, direction);
+        };
+    }
+
+    /**
+     * Copy a window of the world into a finite Maze, e.g. for display. Passages leaving the window are closed.
+     * @param row     the top row of the window
+     * @param column  the leftmost column of the window
+     * @param rows    the number of rows in the window
+     * @param columns the number of columns in the window
+     * @return the window as a Maze
+     */
+    public Maze window(long row, long column, int rows, int columns) {
+        final Maze maze = new Maze(rows, columns);
+        for (int r = 0; r < rows; ) {
+            final long worldRow = row + r;
+            final int tileR = Math.floorMod(worldRow, tileRows);
+            final int height = Math.min(tileRows - tileR, rows - r);
+            for (int c = 0; c < columns; ) {
+                final long worldColumn = column + c;
+                final int tileC = Math.floorMod(worldColumn, tileColumns);
+                final int width = Math.min(tileColumns - tileC, columns - c);
+                final Maze tile = tile(Math.floorDiv(worldRow, tileRows), Math.floorDiv(worldColumn, tileColumns));
+                maze.blit(tile, tileR, tileC, r, c, height, width);
+                c += width;
+            }
+            r += height;
+        }
+
+        // The blitted tiles have walls along their borders: open the doors inside the window.
+        for (int r = 0; r < rows; ++r)
+            for (int c = 0; c < columns; ++c) {
+                if (c < columns - 1 && Math.floorMod(column + c, tileColumns) == tileColumns - 1
+                        && !hasWall(row + r, column + c, Maze.Direction.EAST))
+                    maze.carveWall(r, c, Maze.Direction.EAST);
+                if (r < rows - 1 && Math.floorMod(row + r, tileRows) == tileRows - 1
+                        && !hasWall(row + r, column + c, Maze.Direction.SOUTH))
+                    maze.carveWall(r, c, Maze.Direction.SOUTH);
+            }
+        return maze;
+    }
+
+    /**
+     * @return the tile at the given coordinates, generating it if it is not in memory
+     */
+    public Maze tile(long tileRow, long tileColumn) {
+        final Tile key = new Tile(tileRow, tileColumn);
+        synchronized (tiles) {
+            final Maze tile = tiles.get(key);
+            if (tile != null)
+                return tile;
+        }
+
+        // Generate outside the lock: a tile generated twice concurrently is the same tile either way.
+        final Maze tile = tileGenerator.generate(tileRows, tileColumns, mix(worldSeed, tileRow, tileColumn, 0)).readOnlyCopy();
+        generated.increment();
+        synchronized (tiles) {
+            tiles.putIfAbsent(key, tile);
+        }
+        return tile;
+    }
+
+    /**
+     * @return the parent of a tile in the tile tree, or null for the origin tile
+     */
+    public Tile parent(long tileRow, long tileColumn) {
+        if (tileRow == 0 && tileColumn == 0)
+            return null;
+        final boolean vertical = tileColumn == 0
+                || (tileRow != 0 && (mix(worldSeed, tileRow, tileColumn, PARENT_SALT) & 1) == 0);
+        return vertical
+                ? new Tile(tileRow - Long.signum(tileRow), tileColumn)
+                : new Tile(tileRow, tileColumn - Long.signum(tileColumn));
+    }
+
+    /**
+     * Determine if there is a door at a position along the border between two adjacent tiles.
+     * @param position the row (for a vertical border) or column (for a horizontal border) within the tiles
+     */
+    private boolean hasDoor(long row1, long column1, long row2, long column2, int position) {
+        final Tile child;
+        if (new Tile(row1, column1).equals(parent(row2, column2)))
+            child = new Tile(row2, column2);
+        else if (new Tile(row2, column2).equals(parent(row1, column1)))
+            child = new Tile(row1, column1);
+        else
+            return false;
+
+        final int borderLength = row1 == row2 ? tileRows : tileColumns;
+        return Math.floorMod(mix(worldSeed, child.row(), child.column(), DOOR_SALT), borderLength) == position;
+    }
+
+    /**
+     * A SplitMix64-style hash of the world seed, the tile coordinates, and a salt.
+     */
+    private static long mix(long seed, long tileRow, long tileColumn, long salt) {
+        long z = seed ^ salt;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L + tileRow;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL + tileColumn;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
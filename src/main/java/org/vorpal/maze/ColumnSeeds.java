@@ -0,0 +1,78 @@
+/**
+ * ColumnSeeds.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+/**
+ * The first pass of a separable distance transform over a grid of width columns.
+ * The seeds are bucketed by column, and as the rows are visited in increasing order, the vertical distance from
+ * each column's cell in the row to the nearest seed in that column is produced, without materializing the grid.
+ */
+final class ColumnSeeds {
+    /**
+     * Marks a column without any seeds.
+     */
+    static final int NONE = Integer.MAX_VALUE;
+
+    private final int width;
+    private final int[] start;
+    private final int[] seedRows;
+    private final int[] seedLabels;
+    private final int[] next;
+
+    /**
+     * @param width   the number of columns
+     * @param rows    the row of each seed, indexed by label
+     * @param columns the column of each seed, indexed by label: within any column, the rows of the seeds must
+     *                increase with the label
+     */
+    ColumnSeeds(int width, int[] rows, int[] columns) {
+        final int k = rows.length;
+        this.width = width;
+
+        // Counting sort of the seeds by column, which preserves their order within each column.
+        start = new int[width + 1];
+        for (final int c : columns)
+            ++start[c + 1];
+        for (int c = 0; c < width; ++c)
+            start[c + 1] += start[c];
+        next = start.clone();
+        seedRows = new int[k];
+        seedLabels = new int[k];
+        for (int label = 0; label < k; ++label) {
+            final int slot = next[columns[label]]++;
+            seedRows[slot] = rows[label];
+            seedLabels[slot] = label;
+        }
+        System.arraycopy(start, 0, next, 0, width);
+    }
+
+    /**
+     * Compute the vertical distances for a row. The rows must be requested in increasing order.
+     * @param row       the row
+     * @param distance  set to the distance from (row, c) to the nearest seed in column c, or NONE
+     * @param label     set to the label of that seed: if two seeds are equally near, the lower label wins
+     */
+    void row(int row, int[] distance, int[] label) {
+        for (int c = 0; c < width; ++c) {
+            final int end = start[c + 1];
+            int i = next[c];
+            while (i < end && seedRows[i] <= row)
+                ++i;
+            next[c] = i;
+
+            // The nearest seed at or above the row, and the nearest below it.
+            final int above = i > start[c] ? row - seedRows[i - 1] : NONE;
+            final int below = i < end ? seedRows[i] - row : NONE;
+            if (above <= below) {
+                distance[c] = above;
+                label[c] = above == NONE ? -1 : seedLabels[i - 1];
+            } else {
+                distance[c] = below;
+                label[c] = seedLabels[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * EllerMazeGenerator.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Eller's algorithm: a perfect maze generated one row at a time with O(columns) memory.
+ * <p>
+ * Every cell of the current row belongs to a set of cells that are already connected through the rows above. Adjacent
+ * cells in different sets are randomly joined, and then every set is randomly extended downwards at least once,
+ * so that no set is cut off. In the last row, all the remaining sets are joined.
+ */
+final public class EllerMazeGenerator implements StreamingMazeGenerator {
+    private final double joinProbability;
+    private final double descendProbability;
+
+    public EllerMazeGenerator() {
+        this(0.5, 0.5);
+    }
+
+    /**
+     * @param joinProbability    the probability of joining two horizontally adjacent cells in different sets
+     * @param descendProbability the probability of a cell connecting to the row below, beyond the one connection
+     *                           each set requires
+     */
+    public EllerMazeGenerator(double joinProbability, double descendProbability) {
+        this.joinProbability = joinProbability;
+        this.descendProbability = descendProbability;
+    }
+
+    @Override
+    public void generate(int rows, int columns, long seed, MazeRowSink sink) {
+        final SplittableRandom rnd = new SplittableRandom(seed);
+        final int words = Maze.wordsPerRow(columns);
+        final long[] east = new long[words];
+        final long[] south = new long[words];
+        // The valid columns of the last word: the padding bits past the last column must be zero.
+        final long lastWordMask = -1L >>> (-columns & 63);
+
+        // The set of each cell, as a label in [0, columns), with a union-find over the labels for the joins.
+        final int[] set = new int[columns];
+        final int[] parent = new int[columns];
+        final int[] remaining = new int[columns];
+        final boolean[] descended = new boolean[columns];
+        final boolean[] used = new boolean[columns];
+        for (int c = 0; c < columns; ++c)
+            set[c] = c;
+
+        for (int r = 0; r < rows; ++r) {
+            final boolean lastRow = r == rows - 1;
+            Arrays.fill(east, -1L);
+            Arrays.fill(south, -1L);
+            east[words - 1] = lastWordMask;
+            south[words - 1] = lastWordMask;
+            for (int c = 0; c < columns; ++c)
+                parent[set[c]] = set[c];
+
+            // Join adjacent cells in different sets.
+            for (int c = 0; c < columns - 1; ++c) {
+                final int s1 = find(parent, set[c]);
+                final int s2 = find(parent, set[c + 1]);
+                if (s1 != s2 && (lastRow || rnd.nextDouble() < joinProbability)) {
+                    east[c >>> 6] &= ~(1L << c);
+                    parent[s2] = s1;
+                }
+            }
+            for (int c = 0; c < columns; ++c)
+                set[c] = find(parent, set[c]);
+
+            if (!lastRow) {
+                // Extend every set downwards at least once: the last cell of a set that has not yet descended must.
+                Arrays.fill(remaining, 0);
+                Arrays.fill(descended, false);
+                for (int c = 0; c < columns; ++c)
+                    ++remaining[set[c]];
+                Arrays.fill(used, false);
+                for (int c = 0; c < columns; ++c) {
+                    final int s = set[c];
+                    --remaining[s];
+                    if ((remaining[s] == 0 && !descended[s]) || rnd.nextDouble() < descendProbability) {
+                        south[c >>> 6] &= ~(1L << c);
+                        descended[s] = true;
+                        used[s] = true;
+                    } else
+                        set[c] = -1;
+                }
+
+                // Cells that were not reached from above start in new sets, using the labels no longer in use.
+                int free = 0;
+                for (int c = 0; c < columns; ++c)
+                    if (set[c] == -1) {
+                        while (used[free])
+                            ++free;
+                        set[c] = free;
+                        used[free] = true;
+                    }
+            }
+
+            sink.accept(r, east, south);
+        }
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * EuclideanVoronoiLabeler.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+/**
+ * An exact Voronoi labeler for the (squared) Euclidean metric using the separable distance transform of
+ * Felzenszwalb and Huttenlocher over the bounding box of the stage, in O(rows x columns + seeds).
+ * <p>
+ * The second pass takes the lower envelope of the parabolas (x - c)^2 + g[c]^2. The intersections between parabolas
+ * are kept as exact rationals, and parabolas that touch the envelope at a single point are retained, so that ties
+ * at integer points are detected exactly and resolved by the lowest label, as with brute force.
+ */
+final class EuclideanVoronoiLabeler implements VoronoiLabeler {
+    @Override
+    public void label(CellSet cells, CellSet seeds, int[] labels) {
+        final int minR = cells.minRow();
+        final int minC = cells.minColumn();
+        final int width = cells.maxColumn() - minC + 1;
+
+        final int k = seeds.size();
+        final int[] seedRows = new int[k];
+        final int[] seedColumns = new int[k];
+        for (int i = 0; i < k; ++i) {
+            seedRows[i] = seeds.row(seeds.get(i)) - minR;
+            seedColumns[i] = seeds.column(seeds.get(i)) - minC;
+        }
+        final ColumnSeeds columnSeeds = new ColumnSeeds(width, seedRows, seedColumns);
+
+        final int[] g = new int[width];
+        final int[] gLabel = new int[width];
+        final int[] envelope = new int[width];
+        final long[] boundaryNum = new long[width];
+        final long[] boundaryDen = new long[width];
+        final int[] rowLabels = new int[width];
+
+        final int n = cells.size();
+        int i = 0;
+        while (i < n) {
+            final int row = cells.row(cells.get(i));
+            columnSeeds.row(row - minR, g, gLabel);
+            nearest(g, gLabel, width, envelope, boundaryNum, boundaryDen, rowLabels);
+            for (; i < n && cells.row(cells.get(i)) == row; ++i)
+                labels[i] = rowLabels[cells.column(cells.get(i)) - minC];
+        }
+    }
+
+    /**
+     * The one-dimensional squared Euclidean transform: for each x, find the minimum over c of (x - c)^2 + g[c]^2,
+     * with ties broken by the lowest label.
+     */
+    private static void nearest(int[] g, int[] gLabel, int width,
+                                int[] envelope, long[] boundaryNum, long[] boundaryDen, int[] out) {
+        // Build the lower envelope: parabola envelope[j] is minimal on [boundary[j], boundary[j+1]], where
+        // boundary[0] is -infinity and boundary[k+1] is +infinity.
+        int k = -1;
+        for (int q = 0; q < width; ++q) {
+            if (g[q] == ColumnSeeds.NONE)
+                continue;
+            final long fq = (long) g[q] * g[q] + (long) q * q;
+            long num = 0;
+            long den = 1;
+            while (k >= 0) {
+                final int p = envelope[k];
+                num = fq - ((long) g[p] * g[p] + (long) p * p);
+                den = 2L * (q - p);
+
+                // Discard the top parabola only if q beats it strictly everywhere it was minimal.
+                if (k > 0 && num * boundaryDen[k] < boundaryNum[k] * den)
+                    --k;
+                else
+                    break;
+            }
+            ++k;
+            envelope[k] = q;
+            boundaryNum[k] = num;
+            boundaryDen[k] = den;
+        }
+
+        // Read off the envelope: every parabola whose interval contains x is at the minimum distance.
+        int j = 0;
+        for (int x = 0; x < width; ++x) {
+            while (j < k && boundaryNum[j + 1] < (long) x * boundaryDen[j + 1])
+                ++j;
+            int best = gLabel[envelope[j]];
+            for (int t = j + 1; t <= k && boundaryNum[t] <= (long) x * boundaryDen[t]; ++t)
+                best = Math.min(best, gLabel[envelope[t]]);
+            out[x] = best;
+        }
+    }
+}
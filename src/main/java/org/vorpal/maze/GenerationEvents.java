@@ -0,0 +1,99 @@
+/**
+ * GenerationEvents.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The JDK Flight Recorder events of the maze generators, which are disabled unless a recording enables them, e.g.
+ * with -XX:StartFlightRecording and a settings file that turns on org.vorpal.maze.*.
+ */
+final class GenerationEvents {
+    private GenerationEvents() {}
+
+    @Name("org.vorpal.maze.Generation")
+    @Label("Maze Generation")
+    @Category({"Vorpal", "Maze"})
+    @Description("The generation of a whole maze.")
+    @StackTrace(false)
+    static final class Generation extends Event {
+        @Label("Generator")
+        String generator;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Columns")
+        int columns;
+
+        @Label("Seed")
+        long seed;
+
+        /**
+         * Fill in the fields and commit the event, if it is enabled and long enough to be recorded.
+         */
+        void commit(MazeGenerator generator, Maze maze, long seed) {
+            if (!shouldCommit())
+                return;
+            this.generator = generator.getClass().getName();
+            rows = maze.getRows();
+            columns = maze.getColumns();
+            this.seed = seed;
+            commit();
+        }
+    }
+
+    @Name("org.vorpal.maze.VoronoiStage")
+    @Label("Voronoi Stage")
+    @Category({"Vorpal", "Maze"})
+    @Description("The partition of a stage of a Voronoi maze into regions, or its carving by the fallback, not "
+            + "including the stages below it.")
+    @StackTrace(false)
+    static final class VoronoiStage extends Event {
+        @Label("Depth")
+        int depth;
+
+        @Label("Cells")
+        int cells;
+
+        @Label("Seeds")
+        int seeds;
+
+        @Label("Fallback")
+        @Description("Whether the stage was carved by the fallback generator.")
+        boolean fallback;
+
+        @Label("Seeds Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long seedsTime;
+
+        @Label("Label Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long labelTime;
+
+        @Label("Split Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long splitTime;
+
+        @Label("Adjacency Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long adjacencyTime;
+
+        @Label("Join Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long joinTime;
+
+        @Label("Fallback Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long fallbackTime;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * GenerationListener.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.List;
+
+/**
+ * Observes the generation of mazes: whole generations by any MazeGenerator, and the phases and partitions of every
+ * stage of a VoronoiMazeGenerator. Every method does nothing by default, so a listener overrides only what it needs.
+ * When a generator runs in parallel, a listener is called from several threads at once.
+ * <p>
+ * Generators only read the clock when a listener is attached or their JFR events are enabled, so an unobserved
+ * generation costs next to nothing.
+ */
+public interface GenerationListener extends PartitionListener {
+    /**
+     * The phases of a stage of a VoronoiMazeGenerator.
+     */
+    enum Phase {
+        /** Choosing the seeds of a stage, or deciding to stop. */
+        SEEDS,
+        /** Assigning every cell of a stage to a seed. */
+        LABEL,
+        /** Collecting the cells of each region. */
+        SPLIT,
+        /** Scanning the borders between the regions and choosing their doors. */
+        ADJACENCY,
+        /** Joining the regions by a spanning tree of doors over a union-find. */
+        JOIN,
+        /** Carving a stage with the fallback generator. */
+        FALLBACK
+    }
+
+    /**
+     * A phase of a stage has finished.
+     */
+    default void phase(Stage stage, Phase phase, long nanos) {}
+
+    @Override
+    default void partitioned(Stage stage, List<CellSet> regions) {}
+
+    /**
+     * A generation has finished.
+     * @param generator the generator
+     * @param maze      the maze that was generated
+     * @param seed      the master seed
+     * @param nanos     the time taken
+     */
+    default void generated(MazeGenerator generator, Maze maze, long seed, long nanos) {}
+
+    /**
+     * @return a GenerationListener that passes the partitions to a PartitionListener
+     */
+    static GenerationListener of(PartitionListener listener) {
+        if (listener instanceof GenerationListener generationListener)
+            return generationListener;
+        return new GenerationListener() {
+            @Override
+            public void partitioned(Stage stage, List<CellSet> regions) {
+                listener.partitioned(stage, regions);
+            }
+        };
+    }
+}
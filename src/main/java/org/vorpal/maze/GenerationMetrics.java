@@ -0,0 +1,166 @@
+/**
+ * GenerationMetrics.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A GenerationListener that aggregates the timings of generations and of the phases of their stages into log2
+ * histograms, along with the stage, seed and fallback counts and the region size statistics of a RegionStatistics.
+ * The timings are accumulated without locks, so it can be shared by parallel generators and across a whole batch,
+ * and a consistent enough snapshot can be taken at any time to export to a metrics system.
+ * <p>
+ * The phases of a sequential generation account for all of its time except the recursion itself, so the recursion
+ * overhead is the generation time less the phase times. In a parallel generation the phases overlap.
+ */
+public final class GenerationMetrics implements GenerationListener {
+    /**
+     * The number of buckets in a timing histogram: bucket i counts the times from 2^i to 2^(i+1) - 1 nanoseconds.
+     */
+    public static final int BUCKETS = 64;
+
+    /**
+     * The distribution of a timing.
+     * @param count        the number of times recorded
+     * @param totalNanos   the sum of the times
+     * @param maximumNanos the longest time
+     * @param histogram    the log2 histogram of the times, with BUCKETS buckets
+     */
+    public record Timing(long count, long totalNanos, long maximumNanos, long[] histogram) {
+        public double meanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * @param quantile the quantile, in [0, 1]
+         * @return an upper bound on the quantile of the times: the end of the bucket that contains it
+         */
+        public long quantileNanos(double quantile) {
+            final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; ++i) {
+                seen += histogram[i];
+                if (seen >= rank)
+                    return Math.min(maximumNanos, i == 62 ? Long.MAX_VALUE : (2L << i) - 1);
+            }
+            return maximumNanos;
+        }
+    }
+
+    /**
+     * The metrics at a moment.
+     * @param generation the timing of whole generations
+     * @param phases     the timing of each phase, by GenerationListener.Phase ordinal
+     * @param stages     the number of stages, partitioned or carved by the fallback
+     * @param fallbacks  the number of stages carved by the fallback
+     * @param seeds      the number of seeds placed, i.e. the number of regions
+     * @param regions    the region size statistics at each depth
+     */
+    public record Snapshot(Timing generation, List<Timing> phases, long stages, long fallbacks, long seeds,
+                           List<RegionStatistics.Level> regions) {
+        public Timing phase(Phase phase) {
+            return phases.get(phase.ordinal());
+        }
+
+        /**
+         * @return the mean number of seeds of a partitioned stage
+         */
+        public double meanSeeds() {
+            return stages == fallbacks ? 0 : (double) seeds / (stages - fallbacks);
+        }
+    }
+
+    private static final class Accumulator {
+        final LongAdder count = new LongAdder();
+        final LongAdder total = new LongAdder();
+        final AtomicLong maximum = new AtomicLong();
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            final long time = Math.max(0, nanos);
+            count.increment();
+            total.add(time);
+            maximum.accumulateAndGet(time, Math::max);
+            histogram.incrementAndGet(time == 0 ? 0 : 63 - Long.numberOfLeadingZeros(time));
+        }
+
+        Timing timing() {
+            final long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; ++i)
+                counts[i] = histogram.get(i);
+            return new Timing(count.sum(), total.sum(), maximum.get(), counts);
+        }
+
+        void reset() {
+            count.reset();
+            total.reset();
+            maximum.set(0);
+            for (int i = 0; i < BUCKETS; ++i)
+                histogram.set(i, 0);
+        }
+    }
+
+    private final Accumulator generation = new Accumulator();
+    private final Accumulator[] phases = new Accumulator[Phase.values().length];
+    private final LongAdder stages = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder seeds = new LongAdder();
+    private final RegionStatistics regions = new RegionStatistics();
+
+    public GenerationMetrics() {
+        for (int i = 0; i < phases.length; ++i)
+            phases[i] = new Accumulator();
+    }
+
+    @Override
+    public void phase(Stage stage, Phase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos);
+        if (phase == Phase.FALLBACK) {
+            stages.increment();
+            fallbacks.increment();
+        }
+    }
+
+    @Override
+    public void partitioned(Stage stage, List<CellSet> regions) {
+        stages.increment();
+        seeds.add(regions.size());
+        this.regions.partitioned(stage, regions);
+    }
+
+    @Override
+    public void generated(MazeGenerator generator, Maze maze, long seed, long nanos) {
+        generation.record(nanos);
+    }
+
+    /**
+     * @return the metrics recorded since creation or the last reset
+     */
+    public Snapshot snapshot() {
+        final List<Timing> timings = new ArrayList<>(phases.length);
+        for (final Accumulator phase : phases)
+            timings.add(phase.timing());
+        return new Snapshot(generation.timing(), List.copyOf(timings), stages.sum(), fallbacks.sum(), seeds.sum(),
+                regions.levels());
+    }
+
+    /**
+     * Discard everything recorded so far. Generations that are in progress may be partly kept.
+     */
+    public void reset() {
+        generation.reset();
+        for (final Accumulator phase : phases)
+            phase.reset();
+        stages.reset();
+        fallbacks.reset();
+        seeds.reset();
+        regions.clear();
+    }
+}
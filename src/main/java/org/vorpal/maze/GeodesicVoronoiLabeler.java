@@ -0,0 +1,101 @@
+/**
+ * GeodesicVoronoiLabeler.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Labels cells by growing all the seeds at once through the cells of the stage, so that each cell joins the region
+ * that first reaches it along a path inside the stage.
+ * <p>
+ * Unlike the metric labelers, this guarantees that every region is 4-connected, even when the stage is not convex,
+ * as each cell is reached from a cell already in its region. Since every stage is then connected, so are the regions
+ * of every later stage. Labeling takes O(cells) time however many seeds there are.
+ * <p>
+ * The ROUND_ROBIN frontier is a multi-source BFS, giving each cell to a seed nearest it in the stage's own graph.
+ * The RANDOM frontier expands a uniformly random frontier cell at each step, which grows irregular regions. Its
+ * generator is seeded from the seeds and a salt, so a stage is always labelled the same way.
+ * Cells that are not connected to any seed within the stage, which can only happen if the stage is not connected, are
+ * given to seed 0.
+ */
+final public class GeodesicVoronoiLabeler implements VoronoiLabeler {
+    public enum Frontier {
+        ROUND_ROBIN,
+        RANDOM
+    }
+
+    private final Frontier frontier;
+    private final long salt;
+
+    /**
+     * Create a labeler with a round-robin frontier.
+     */
+    public GeodesicVoronoiLabeler() {
+        this(Frontier.ROUND_ROBIN, 0);
+    }
+
+    /**
+     * @param frontier the order in which the frontier is expanded
+     * @param salt     mixed into the seed of the generator for the RANDOM frontier
+     */
+    public GeodesicVoronoiLabeler(Frontier frontier, long salt) {
+        this.frontier = frontier;
+        this.salt = salt;
+    }
+
+    @Override
+    public void label(CellSet cells, CellSet seeds, int[] labels) {
+        final int n = cells.size();
+        final int k = seeds.size();
+        final CellNeighbours graph = new CellNeighbours(cells);
+        final int[] queue = new int[n];
+        final int[] neighbours = new int[4];
+        Arrays.fill(labels, 0, n, -1);
+
+        int tail = 0;
+        long hash = salt;
+        for (int s = 0; s < k; ++s) {
+            final int index = cells.indexOf(seeds.get(s));
+            if (index < 0)
+                throw new IllegalArgumentException("Seed is not in the stage: " + seeds.get(s));
+            labels[index] = s;
+            queue[tail++] = index;
+            hash = hash * 0x9E3779B97F4A7C15L + seeds.get(s);
+        }
+
+        if (frontier == Frontier.ROUND_ROBIN) {
+            for (int head = 0; head < tail; ++head) {
+                final int index = queue[head];
+                final int count = graph.neighbours(index, neighbours);
+                for (int i = 0; i < count; ++i)
+                    if (labels[neighbours[i]] < 0) {
+                        labels[neighbours[i]] = labels[index];
+                        queue[tail++] = neighbours[i];
+                    }
+            }
+        } else {
+            // The queue holds the frontier, from which a random cell is removed at each step.
+            final SplittableRandom rnd = new SplittableRandom(hash);
+            int size = tail;
+            while (size > 0) {
+                final int j = rnd.nextInt(size);
+                final int index = queue[j];
+                queue[j] = queue[--size];
+                final int count = graph.neighbours(index, neighbours);
+                for (int i = 0; i < count; ++i)
+                    if (labels[neighbours[i]] < 0) {
+                        labels[neighbours[i]] = labels[index];
+                        queue[size++] = neighbours[i];
+                    }
+            }
+        }
+
+        for (int i = 0; i < n; ++i)
+            if (labels[i] < 0)
+                labels[i] = 0;
+    }
+}
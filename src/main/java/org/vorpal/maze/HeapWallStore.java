@@ -0,0 +1,53 @@
+/**
+ * HeapWallStore.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A WallStore keeping each plane in a long[] on the heap, for 2 bits per cell.
+ */
+final public class HeapWallStore implements WallStore {
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[][] planes;
+
+    /**
+     * Create a store of zeroed planes.
+     * @param wordCount the number of words in each plane
+     */
+    public HeapWallStore(long wordCount) {
+        if (wordCount > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze is too large for a heap store.");
+        planes = new long[][] { new long[(int) wordCount], new long[(int) wordCount] };
+    }
+
+    @Override
+    public long wordCount() {
+        return planes[EAST].length;
+    }
+
+    @Override
+    public long getWord(int plane, long index) {
+        return planes[plane][(int) index];
+    }
+
+    @Override
+    public void setWord(int plane, long index, long value) {
+        planes[plane][(int) index] = value;
+    }
+
+    @Override
+    public void setBits(int plane, long index, long mask) {
+        WORDS.getAndBitwiseOr(planes[plane], (int) index, mask);
+    }
+
+    @Override
+    public void clearBits(int plane, long index, long mask) {
+        WORDS.getAndBitwiseAnd(planes[plane], (int) index, ~mask);
+    }
+}
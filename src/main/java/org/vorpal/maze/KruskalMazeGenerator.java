@@ -0,0 +1,84 @@
+/**
+ * KruskalMazeGenerator.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A randomized Kruskal maze generator: the walls between the cells are visited in a random order, and each is carved
+ * if it joins two cells that are not yet connected, as tracked by a union-find over the cells.
+ * It works directly over any CellSet, so it can also finish the regions of a VoronoiMazeGenerator.
+ */
+final public class KruskalMazeGenerator implements MazeGenerator, RegionMazeGenerator {
+    @Override
+    public Maze generate(int rows, int columns, long seed) {
+        final Maze maze = new Maze(rows, columns);
+        generateInto(maze, seed);
+        return maze;
+    }
+
+    @Override
+    public void generateInto(Maze maze, long seed) {
+        carve(maze, CellSet.full(maze.getRows(), maze.getColumns()), new SplittableRandom(seed));
+    }
+
+    @Override
+    public void carve(Maze maze, CellSet cells, RandomGenerator rnd) {
+        final CellNeighbours graph = new CellNeighbours(cells);
+        final int n = graph.size();
+
+        // Each wall is the east or south wall of a cell, encoded as 2 * index + (0 for east, 1 for south), and the
+        // walls are shuffled inside-out as they are collected.
+        final int[] walls = new int[2 * n];
+        int count = 0;
+        for (int i = 0; i < n; ++i) {
+            if (graph.neighbour(i, Maze.Direction.EAST) >= 0)
+                count = shuffleIn(walls, count, 2 * i, rnd);
+            if (graph.neighbour(i, Maze.Direction.SOUTH) >= 0)
+                count = shuffleIn(walls, count, 2 * i + 1, rnd);
+        }
+
+        final int[] parent = new int[n];
+        for (int i = 0; i < n; ++i)
+            parent[i] = i;
+        int needed = n - 1;
+        for (int w = 0; w < count && needed > 0; ++w) {
+            final int index = walls[w] >>> 1;
+            final int other = graph.neighbour(index, (walls[w] & 1) == 0 ? Maze.Direction.EAST : Maze.Direction.SOUTH);
+            final int r1 = find(parent, index);
+            final int r2 = find(parent, other);
+            if (r1 != r2) {
+                graph.carve(maze, index, other);
+                parent[r1] = r2;
+                --needed;
+            }
+        }
+    }
+
+    private static int shuffleIn(int[] walls, int count, int wall, RandomGenerator rnd) {
+        final int j = rnd.nextInt(count + 1);
+        walls[count] = walls[j];
+        walls[j] = wall;
+        return count + 1;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * @return this generator, which already carves regions directly
+     */
+    @Override
+    public RegionMazeGenerator adapt() {
+        return this;
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * ManhattanVoronoiLabeler.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+/**
+ * An exact Voronoi labeler for the Manhattan metric using a separable distance transform over the bounding box of
+ * the stage: a column pass followed by a forward and a backward sweep per row, in O(rows x columns + seeds).
+ */
+final class ManhattanVoronoiLabeler implements VoronoiLabeler {
+    @Override
+    public void label(CellSet cells, CellSet seeds, int[] labels) {
+        final int minR = cells.minRow();
+        final int minC = cells.minColumn();
+        final int width = cells.maxColumn() - minC + 1;
+
+        final int k = seeds.size();
+        final int[] seedRows = new int[k];
+        final int[] seedColumns = new int[k];
+        for (int i = 0; i < k; ++i) {
+            seedRows[i] = seeds.row(seeds.get(i)) - minR;
+            seedColumns[i] = seeds.column(seeds.get(i)) - minC;
+        }
+        final ColumnSeeds columnSeeds = new ColumnSeeds(width, seedRows, seedColumns);
+
+        final int[] g = new int[width];
+        final int[] gLabel = new int[width];
+        final int[] distance = new int[width];
+        final int[] rowLabels = new int[width];
+
+        // Only the rows containing cells of the stage need the second pass.
+        final int n = cells.size();
+        int i = 0;
+        while (i < n) {
+            final int row = cells.row(cells.get(i));
+            columnSeeds.row(row - minR, g, gLabel);
+            nearest(g, gLabel, width, distance, rowLabels);
+            for (; i < n && cells.row(cells.get(i)) == row; ++i)
+                labels[i] = rowLabels[cells.column(cells.get(i)) - minC];
+        }
+    }
+
+    /**
+     * The one-dimensional Manhattan transform: for each x, find the minimum over c of |x - c| + g[c], with ties
+     * broken by the lowest label.
+     * @param g        the distance contributed by each column, or ColumnSeeds.NONE
+     * @param gLabel   the label contributing g[c]
+     * @param width    the number of columns
+     * @param distance scratch space, set to the minimum distances
+     * @param out      set to the labels achieving the minimum distances
+     */
+    static void nearest(int[] g, int[] gLabel, int width, int[] distance, int[] out) {
+        final int none = ColumnSeeds.NONE;
+
+        // Forward sweep: the nearest of the columns at or to the left of x.
+        int best = none;
+        int bestLabel = -1;
+        for (int x = 0; x < width; ++x) {
+            if (best != none)
+                ++best;
+            if (g[x] < best || (g[x] == best && g[x] != none && gLabel[x] < bestLabel)) {
+                best = g[x];
+                bestLabel = gLabel[x];
+            }
+            distance[x] = best;
+            out[x] = bestLabel;
+        }
+
+        // Backward sweep: the nearest of the columns at or to the right of x, merged with the forward sweep.
+        best = none;
+        bestLabel = -1;
+        for (int x = width - 1; x >= 0; --x) {
+            if (best != none)
+                ++best;
+            if (g[x] < best || (g[x] == best && g[x] != none && gLabel[x] < bestLabel)) {
+                best = g[x];
+                bestLabel = gLabel[x];
+            }
+            if (best < distance[x] || (best == distance[x] && bestLabel < out[x])) {
+                distance[x] = best;
+                out[x] = bestLabel;
+            }
+        }
+    }
+}
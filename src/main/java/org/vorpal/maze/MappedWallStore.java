@@ -0,0 +1,163 @@
+/**
+ * MappedWallStore.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A WallStore whose planes live in a memory-mapped file, so that mazes larger than the heap are paged in and out by
+ * the operating system. The planes are stored one after the other as little-endian 64-bit words, starting at an
+ * 8-byte aligned offset in the file.
+ * <p>
+ * A file is mapped in chunks of at most 1 GiB, since a single MappedByteBuffer is limited to 2 GiB.
+ */
+final public class MappedWallStore implements WallStore, AutoCloseable {
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // The number of words in a chunk.
+    private static final int CHUNK_SHIFT = 27;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long wordCount;
+    private final boolean readOnly;
+
+    private MappedWallStore(FileChannel channel, long offset, long wordCount, boolean readOnly) throws IOException {
+        if (offset % Long.BYTES != 0)
+            throw new IllegalArgumentException("The planes must be 8-byte aligned.");
+        this.channel = channel;
+        this.wordCount = wordCount;
+        this.readOnly = readOnly;
+
+        final long totalWords = 2 * wordCount;
+        final int chunkCount = (int) ((totalWords + CHUNK_MASK) >>> CHUNK_SHIFT);
+        chunks = new MappedByteBuffer[chunkCount];
+        final FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+        for (int i = 0; i < chunkCount; ++i) {
+            final long first = (long) i << CHUNK_SHIFT;
+            final long words = Math.min(1L << CHUNK_SHIFT, totalWords - first);
+            chunks[i] = channel.map(mode, offset + first * Long.BYTES, words * Long.BYTES);
+        }
+    }
+
+    /**
+     * Create (or truncate) a file holding the planes of a maze, with every bit clear.
+     * @param file    the file
+     * @param rows    the number of rows of the maze
+     * @param columns the number of columns of the maze
+     * @return the writable store
+     */
+    public static MappedWallStore create(Path file, int rows, int columns) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            final long wordCount = Maze.wordCount(rows, columns);
+            channel.truncate(0);
+            // Write a byte at the end so that the file has its full length.
+            channel.write(ByteBuffer.allocate(1), 2 * wordCount * Long.BYTES - 1);
+            return new MappedWallStore(channel, 0, wordCount, false);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Map the planes of a maze from an existing file.
+     * @param file      the file
+     * @param offset    the offset of the east plane in the file, which must be a multiple of 8
+     * @param wordCount the number of words in each plane
+     * @param readOnly  whether to map the file read-only
+     * @return the store
+     */
+    public static MappedWallStore open(Path file, long offset, long wordCount, boolean readOnly) throws IOException {
+        final FileChannel channel = readOnly
+                ? FileChannel.open(file, StandardOpenOption.READ)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < offset + 2 * wordCount * Long.BYTES)
+                throw new IOException("File is too short for the maze: " + file);
+            return new MappedWallStore(channel, offset, wordCount, readOnly);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create a file-backed maze with every wall filled.
+     * @param file    the file
+     * @param rows    the number of rows
+     * @param columns the number of columns
+     * @return the Maze, whose walls are written through to the file
+     */
+    public static Maze createMaze(Path file, int rows, int columns) throws IOException {
+        final Maze maze = new Maze(rows, columns, create(file, rows, columns));
+        maze.fillAll();
+        return maze;
+    }
+
+    @Override
+    public long wordCount() {
+        return wordCount;
+    }
+
+    @Override
+    public long getWord(int plane, long index) {
+        final long word = plane * wordCount + index;
+        return (long) WORDS.get(chunks[(int) (word >>> CHUNK_SHIFT)], (int) (word & CHUNK_MASK) << 3);
+    }
+
+    @Override
+    public void setWord(int plane, long index, long value) {
+        final long word = plane * wordCount + index;
+        WORDS.set(chunks[(int) (word >>> CHUNK_SHIFT)], (int) (word & CHUNK_MASK) << 3, value);
+    }
+
+    @Override
+    public void setBits(int plane, long index, long mask) {
+        final long word = plane * wordCount + index;
+        WORDS.getAndBitwiseOr(chunks[(int) (word >>> CHUNK_SHIFT)], (int) (word & CHUNK_MASK) << 3, mask);
+    }
+
+    @Override
+    public void clearBits(int plane, long index, long mask) {
+        final long word = plane * wordCount + index;
+        WORDS.getAndBitwiseAnd(chunks[(int) (word >>> CHUNK_SHIFT)], (int) (word & CHUNK_MASK) << 3, ~mask);
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Write any changes through to the file.
+     */
+    public void force() {
+        if (!readOnly)
+            for (final MappedByteBuffer chunk : chunks)
+                chunk.force();
+    }
+
+    /**
+     * Flush the changes and close the file. The mapping itself is released when the store is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -6,8 +6,6 @@
 package org.vorpal.maze;
 
 import java.awt.*;
-import java.util.Arrays;
-import java.util.stream.IntStream;
 
 public class Maze {
     public enum Direction {
@@ -29,21 +27,75 @@ public class Maze {
         };
     }
 
+    /**
+     * @param columns the number of columns in a maze
+     * @return the number of 64-bit words in each row of a wall plane
+     */
+    public static int wordsPerRow(int columns) {
+        return (columns + 63) >>> 6;
+    }
+
+    /**
+     * @param rows    the number of rows in a maze
+     * @param columns the number of columns in a maze
+     * @return the number of 64-bit words in each wall plane
+     */
+    public static long wordCount(int rows, int columns) {
+        return (long) rows * wordsPerRow(columns);
+    }
+
     private final int rows;
     private final int columns;
-    private final boolean[][] eastWall;
-    private final boolean[][] southWall;
+    private final int wordsPerRow;
+    private final WallStore walls;
+    private final boolean readOnly;
 
+    /**
+     * Create a maze with every wall filled, with its walls packed into bit planes on the heap.
+     */
     public Maze(int rows, int columns) {
+        this(rows, columns, new HeapWallStore(wordCount(rows, columns)));
+        fillPlanes();
+    }
+
+    /**
+     * Create a maze over an existing store of walls, which are used as they are.
+     * @param rows    the number of rows
+     * @param columns the number of columns
+     * @param walls   the store, which must have wordCount(rows, columns) words per plane
+     */
+    public Maze(int rows, int columns, WallStore walls) {
+        this(rows, columns, walls, walls.isReadOnly());
+    }
+
+    private Maze(int rows, int columns, WallStore walls, boolean readOnly) {
+        if (rows < 1 || columns < 1)
+            throw new IllegalArgumentException("A maze must have at least one row and one column.");
+        if (walls.wordCount() != wordCount(rows, columns))
+            throw new IllegalArgumentException("The wall store does not match the dimensions of the maze.");
         this.rows = rows;
         this.columns = columns;
-        eastWall = new boolean[rows][columns];
-        southWall = new boolean[rows][columns];
+        this.wordsPerRow = wordsPerRow(columns);
+        this.walls = walls;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * @return an immutable copy of this Maze, which can be safely shared across threads
+     */
+    public Maze readOnlyCopy() {
+        if (readOnly)
+            return this;
+        final Maze copy = new Maze(rows, columns, new HeapWallStore(wordCount(rows, columns)), false);
+        copy.copyFrom(this);
+        return new Maze(rows, columns, copy.walls, true);
+    }
 
-        IntStream.range(0, rows).forEach(r -> {
-            Arrays.fill(eastWall[r], true);
-            Arrays.fill(southWall[r], true);
-        });
+    /**
+     * @return true if the walls of this Maze cannot be changed
+     */
+    public boolean isReadOnly() {
+        return readOnly;
     }
 
     public int getRows() {
@@ -54,39 +106,250 @@ public class Maze {
         return columns;
     }
 
+    public int wordsPerRow() {
+        return wordsPerRow;
+    }
+
+    /**
+     * Read 64 walls at once: bit b of the word is the wall of the cell in column 64 * word + b.
+     * @param direction EAST or SOUTH
+     * @param row       the row
+     * @param word      the index of the word in the row
+     * @return the word of the wall plane, with zeroes past the last column
+     */
+    public long wallWord(Direction direction, int row, int word) {
+        return walls.getWord(plane(direction), (long) row * wordsPerRow + word);
+    }
+
     public void setWall(Point cell, Direction direction, boolean state) {
+        setWall(cell.x, cell.y, direction, state);
+    }
+
+    public void setWall(int row, int column, Direction direction, boolean state) {
+        if (readOnly)
+            throw new UnsupportedOperationException("Cannot change the walls of a read-only maze.");
+
         boolean isBorder =
-                (cell.x == 0 && direction == Direction.NORTH) ||
-                (cell.x == rows - 1 && direction == Direction.SOUTH) ||
-                (cell.y == 0 && direction == Direction.WEST) ||
-                (cell.y == columns - 1 && direction == Direction.EAST);
+                (row == 0 && direction == Direction.NORTH) ||
+                (row == rows - 1 && direction == Direction.SOUTH) ||
+                (column == 0 && direction == Direction.WEST) ||
+                (column == columns - 1 && direction == Direction.EAST);
 
         // Forbid erasing a permanent border wall:
         if (isBorder && !state)
             throw new IllegalArgumentException("Cannot erase a border wall.");
 
         switch (direction) {
-            case NORTH -> southWall[cell.x - 1][cell.y] = state;
-            case EAST  -> eastWall[cell.x][cell.y]      = state;
-            case SOUTH -> southWall[cell.x][cell.y]     = state;
-            case WEST  -> eastWall[cell.x][cell.y - 1]  = state;
+            case NORTH -> setBit(WallStore.SOUTH, row - 1, column, state);
+            case EAST  -> setBit(WallStore.EAST, row, column, state);
+            case SOUTH -> setBit(WallStore.SOUTH, row, column, state);
+            case WEST  -> setBit(WallStore.EAST, row, column - 1, state);
         }
     }
 
     public void carveWall(Point cell, Direction direction) {
-        setWall(cell, direction, false);
+        setWall(cell.x, cell.y, direction, false);
+    }
+
+    public void carveWall(int row, int column, Direction direction) {
+        setWall(row, column, direction, false);
     }
 
     public void fillWall(Point cell, Direction direction) {
-        setWall(cell, direction, true);
+        setWall(cell.x, cell.y, direction, true);
+    }
+
+    public void fillWall(int row, int column, Direction direction) {
+        setWall(row, column, direction, true);
     }
 
     public boolean hasWall(Point cell, Direction direction) {
+        return hasWall(cell.x, cell.y, direction);
+    }
+
+    public boolean hasWall(int row, int column, Direction direction) {
         return switch (direction) {
-            case NORTH -> cell.x == 0 || southWall[cell.x-1][cell.y];
-            case EAST -> eastWall[cell.x][cell.y];
-            case SOUTH -> southWall[cell.x][cell.y];
-            case WEST -> cell.y == 0 || eastWall[cell.x][cell.y-1];
+            case NORTH -> row == 0 || bit(WallStore.SOUTH, row - 1, column);
+            case EAST -> bit(WallStore.EAST, row, column);
+            case SOUTH -> bit(WallStore.SOUTH, row, column);
+            case WEST -> column == 0 || bit(WallStore.EAST, row, column - 1);
         };
     }
+
+    /*
+     * Bulk operations. These work a word at a time and are not atomic, so they must not run concurrently with any
+     * other writes to the maze.
+     */
+
+    /**
+     * Fill every wall.
+     */
+    public void fillAll() {
+        checkWritable();
+        fillPlanes();
+    }
+
+    private void fillPlanes() {
+        final long lastWord = lastWordMask();
+        for (int plane = WallStore.EAST; plane <= WallStore.SOUTH; ++plane)
+            for (long r = 0; r < rows; ++r) {
+                final long base = r * wordsPerRow;
+                for (int w = 0; w < wordsPerRow - 1; ++w)
+                    walls.setWord(plane, base + w, -1L);
+                walls.setWord(plane, base + wordsPerRow - 1, lastWord);
+            }
+    }
+
+    /**
+     * Carve every wall except the border walls.
+     */
+    public void carveAll() {
+        checkWritable();
+        for (long w = 0; w < walls.wordCount(); ++w) {
+            walls.setWord(WallStore.EAST, w, 0L);
+            walls.setWord(WallStore.SOUTH, w, 0L);
+        }
+        restoreBorder(0, rows);
+    }
+
+    /**
+     * Copy all the walls from a maze of the same dimensions.
+     */
+    public void copyFrom(Maze source) {
+        checkWritable();
+        if (source.rows != rows || source.columns != columns)
+            throw new IllegalArgumentException("Mazes must have the same dimensions.");
+        for (int plane = WallStore.EAST; plane <= WallStore.SOUTH; ++plane)
+            for (long w = 0; w < walls.wordCount(); ++w)
+                walls.setWord(plane, w, source.walls.getWord(plane, w));
+    }
+
+    /**
+     * Copy the east and south walls of a rectangle of cells of a maze into this maze.
+     * The border walls of this maze are preserved even if the rectangle does not have walls in their place.
+     * @param source       the maze to copy from
+     * @param sourceRow    the top row of the rectangle in the source
+     * @param sourceColumn the leftmost column of the rectangle in the source
+     * @param row          the top row of the rectangle in this maze
+     * @param column       the leftmost column of the rectangle in this maze
+     * @param height       the number of rows in the rectangle
+     * @param width        the number of columns in the rectangle
+     */
+    public void blit(Maze source, int sourceRow, int sourceColumn, int row, int column, int height, int width) {
+        checkWritable();
+        if (height < 0 || width < 0
+                || sourceRow < 0 || sourceColumn < 0 || sourceRow + height > source.rows || sourceColumn + width > source.columns
+                || row < 0 || column < 0 || row + height > rows || column + width > columns)
+            throw new IllegalArgumentException("Rectangle does not fit in both mazes.");
+
+        for (int plane = WallStore.EAST; plane <= WallStore.SOUTH; ++plane)
+            for (int i = 0; i < height; ++i) {
+                final long sourceBase = (long) (sourceRow + i) * source.wordsPerRow;
+                final long base = (long) (row + i) * wordsPerRow;
+                for (int copied = 0; copied < width; ) {
+                    final int bit = column + copied;
+                    final long index = base + (bit >>> 6);
+                    final int offset = bit & 63;
+                    final int length = Math.min(64 - offset, width - copied);
+                    final long bits = source.readBits(plane, sourceBase, sourceColumn + copied, length);
+                    final long mask = lowMask(length) << offset;
+                    walls.setWord(plane, index, (walls.getWord(plane, index) & ~mask) | (bits << offset));
+                    copied += length;
+                }
+            }
+        restoreBorder(row, row + height);
+    }
+
+    /**
+     * Replace the walls of a row, e.g. as produced by a StreamingMazeGenerator.
+     * The border walls of this maze are preserved even if the words do not have walls in their place.
+     * @param row   the row
+     * @param east  the east walls of the row, in wordsPerRow() words
+     * @param south the south walls of the row, in wordsPerRow() words
+     */
+    public void setRow(int row, long[] east, long[] south) {
+        checkWritable();
+        if (row < 0 || row >= rows)
+            throw new IllegalArgumentException("No such row: " + row);
+        final long base = (long) row * wordsPerRow;
+        for (int w = 0; w < wordsPerRow; ++w) {
+            final long mask = w == wordsPerRow - 1 ? lastWordMask() : -1L;
+            walls.setWord(WallStore.EAST, base + w, east[w] & mask);
+            walls.setWord(WallStore.SOUTH, base + w, south[w] & mask);
+        }
+        restoreBorder(row, row + 1);
+    }
+
+    /**
+     * @return the number of open (carved) walls between cells, which is rows * columns - 1 for a perfect maze
+     */
+    public long countOpenWalls() {
+        long wallCount = 0;
+        for (long w = 0; w < walls.wordCount(); ++w)
+            wallCount += Long.bitCount(walls.getWord(WallStore.EAST, w)) + Long.bitCount(walls.getWord(WallStore.SOUTH, w));
+
+        // Discount the border walls on the east and south edges, which are always present.
+        final long interiorWalls = (long) rows * (columns - 1) + (long) (rows - 1) * columns;
+        return interiorWalls - (wallCount - rows - columns);
+    }
+
+    private static int plane(Direction direction) {
+        return switch (direction) {
+            case EAST -> WallStore.EAST;
+            case SOUTH -> WallStore.SOUTH;
+            default -> throw new IllegalArgumentException("Only the EAST and SOUTH walls are stored.");
+        };
+    }
+
+    private boolean bit(int plane, int row, int column) {
+        return (walls.getWord(plane, (long) row * wordsPerRow + (column >>> 6)) & (1L << column)) != 0;
+    }
+
+    private void setBit(int plane, int row, int column, boolean state) {
+        final long index = (long) row * wordsPerRow + (column >>> 6);
+        if (state)
+            walls.setBits(plane, index, 1L << column);
+        else
+            walls.clearBits(plane, index, 1L << column);
+    }
+
+    /**
+     * Read length (1 to 64) bits of a plane starting at a bit offset into the row at the given word.
+     */
+    private long readBits(int plane, long base, int bit, int length) {
+        final long index = base + (bit >>> 6);
+        final int offset = bit & 63;
+        long bits = walls.getWord(plane, index) >>> offset;
+        if (offset + length > 64)
+            bits |= walls.getWord(plane, index + 1) << (64 - offset);
+        return bits & lowMask(length);
+    }
+
+    private static long lowMask(int length) {
+        return length == 64 ? -1L : (1L << length) - 1;
+    }
+
+    private long lastWordMask() {
+        return lowMask(columns - 64 * (wordsPerRow - 1));
+    }
+
+    /**
+     * Fill the east border walls of the rows in [from, to), and the south border walls if the last row is included.
+     * Word writes are used for the south border, so this must not run concurrently with other writers.
+     */
+    private void restoreBorder(int from, int to) {
+        for (int r = from; r < to; ++r)
+            walls.setBits(WallStore.EAST, (long) r * wordsPerRow + ((columns - 1) >>> 6), 1L << (columns - 1));
+        if (to == rows) {
+            final long base = (long) (rows - 1) * wordsPerRow;
+            for (int w = 0; w < wordsPerRow - 1; ++w)
+                walls.setWord(WallStore.SOUTH, base + w, -1L);
+            walls.setWord(WallStore.SOUTH, base + wordsPerRow - 1, lastWordMask());
+        }
+    }
+
+    private void checkWritable() {
+        if (readOnly)
+            throw new UnsupportedOperationException("Cannot change the walls of a read-only maze.");
+    }
 }
@@ -0,0 +1,163 @@
+/**
+ * MazeAnalytics.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Computes the quality metrics of mazes in linear time, for comparing seed strategies and metrics over many mazes.
+ * <p>
+ * One scan over the wall planes counts the open walls of the cells a word at a time and walks every corridor once,
+ * and two BFS passes find the solution and the diameter: from the top left corner to the farthest cell, and from
+ * there to the cell farthest from it.
+ * The BFS arrays are kept in a SolverWorkspace and reused from one maze to the next, so an instance should be
+ * reused across a batch; it must not be shared between threads.
+ */
+public final class MazeAnalytics {
+    private final SolverWorkspace workspace = new SolverWorkspace();
+    private final int[] neighbours = new int[4];
+    private final int[] exits = new int[4];
+
+    private static final ThreadLocal<MazeAnalytics> PER_THREAD = ThreadLocal.withInitial(MazeAnalytics::new);
+
+    /**
+     * Analyze every maze of a stream, in parallel if the stream is parallel, with one instance per thread.
+     * @param mazes the mazes
+     * @return the reports, in the order of the mazes
+     */
+    public static Stream<MazeReport> analyzeAll(Stream<Maze> mazes) {
+        return mazes.map(maze -> PER_THREAD.get().analyze(maze));
+    }
+
+    public MazeReport analyze(Maze maze) {
+        return analyze(maze, null);
+    }
+
+    /**
+     * Analyze a maze.
+     * @param maze    the maze
+     * @param regions the region statistics recorded while generating the maze, or null
+     * @return the report
+     */
+    public MazeReport analyze(Maze maze, RegionStatistics regions) {
+        final int rows = maze.getRows();
+        final int columns = maze.getColumns();
+        final long cells = (long) rows * columns;
+        if (cells > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze has too many cells for int cell ids.");
+        final int n = (int) cells;
+
+        // Count the open walls of every cell a word of the wall planes at a time, and walk the corridors out of
+        // every cell that is not inside one.
+        final int words = maze.wordsPerRow();
+        final long lastValid = columns % 64 == 0 ? -1L : (1L << columns) - 1;
+        final long[] walked = new long[(n + 63) >>> 6];
+        final long[] degreeCounts = new long[5];
+        long[] corridorLengths = new long[16];
+        for (int r = 0; r < rows; ++r) {
+            long westCarry = 0;
+            for (int w = 0; w < words; ++w) {
+                final long valid = w == words - 1 ? lastValid : -1L;
+                final long east = ~maze.wallWord(Maze.Direction.EAST, r, w) & valid;
+                final long south = ~maze.wallWord(Maze.Direction.SOUTH, r, w) & valid;
+                final long north = r == 0 ? 0 : ~maze.wallWord(Maze.Direction.SOUTH, r - 1, w) & valid;
+                final long west = ((east << 1) | westCarry) & valid;
+                westCarry = east >>> 63;
+
+                // Add up the four open wall bits of each cell in parallel: the degree is low + 2 * middle + 4 * high.
+                final long sum1 = east ^ west;
+                final long sum2 = north ^ south;
+                final long low = sum1 ^ sum2;
+                final long middle = (east & west) ^ (north & south) ^ (sum1 & sum2);
+                final long high = east & west & north & south;
+                final long two = ~low & middle;
+                degreeCounts[0] += Long.bitCount(valid & ~low & ~middle & ~high);
+                degreeCounts[1] += Long.bitCount(low & ~middle);
+                degreeCounts[2] += Long.bitCount(two);
+                degreeCounts[3] += Long.bitCount(low & middle);
+                degreeCounts[4] += Long.bitCount(high);
+
+                for (long ends = valid & ~two; ends != 0; ends &= ends - 1) {
+                    final int cell = r * columns + (w << 6) + Long.numberOfTrailingZeros(ends);
+                    final int degree = SolverWorkspace.neighbours(maze, cell, exits);
+                    for (int i = 0; i < degree; ++i) {
+                        final int length = corridor(maze, cell, exits[i], walked);
+                        if (length == 0)
+                            continue;
+                        if (length >= corridorLengths.length)
+                            corridorLengths = Arrays.copyOf(corridorLengths,
+                                    Math.max(length + 1, 2 * corridorLengths.length));
+                        ++corridorLengths[length];
+                    }
+                }
+            }
+        }
+        corridorLengths = Arrays.copyOf(corridorLengths, trimmedLength(corridorLengths));
+
+        // The farthest cell from any cell is an end of a longest path of a tree, and the BFS from the corner also
+        // yields the solution.
+        final int diameterStart = workspace.farthest(maze, 0);
+        final int[] solution = workspace.lastPath(n - 1);
+        final int diameterEnd = workspace.farthest(maze, diameterStart);
+        final int diameter = workspace.lastDistance(diameterEnd);
+
+        final MazeReport.River river = river(maze, solution);
+        final List<RegionStatistics.Level> levels = regions == null ? List.of() : regions.levels();
+        return new MazeReport(rows, columns, maze.countOpenWalls(), diameter, diameterStart, diameterEnd,
+                degreeCounts, corridorLengths, river, levels);
+    }
+
+    /**
+     * Walk a corridor from one of its ends until a cell that does not have exactly two open walls.
+     * To walk every corridor once, the last inner cell of a corridor is marked as walked, so that the corridor is
+     * skipped from its other end, and a corridor with no inner cells is only counted from the end with the smaller id.
+     * @param walked a bit per cell marking the last inner cells of the corridors walked so far
+     * @return the length of the corridor, or 0 if it has already been counted
+     */
+    private int corridor(Maze maze, int start, int first, long[] walked) {
+        if ((walked[first >>> 6] & (1L << first)) != 0)
+            return 0;
+        int previous = start;
+        int cell = first;
+        int length = 1;
+        while (SolverWorkspace.neighbours(maze, cell, neighbours) == 2) {
+            final int next = neighbours[0] == previous ? neighbours[1] : neighbours[0];
+            previous = cell;
+            cell = next;
+            ++length;
+        }
+        if (length == 1)
+            return start < cell ? 1 : 0;
+        walked[previous >>> 6] |= 1L << previous;
+        return length;
+    }
+
+    private MazeReport.River river(Maze maze, int[] path) {
+        if (path.length == 0)
+            return new MazeReport.River(-1, 0, 0, 0, 0);
+        final int n = maze.getRows() * maze.getColumns();
+        int turns = 0;
+        long branches = 0;
+        for (int i = 0; i < path.length; ++i) {
+            if (i >= 2 && path[i] - path[i - 1] != path[i - 1] - path[i - 2])
+                ++turns;
+            final int onPath = (i > 0 ? 1 : 0) + (i < path.length - 1 ? 1 : 0);
+            branches += SolverWorkspace.neighbours(maze, path[i], neighbours) - onPath;
+        }
+        final int offPath = n - path.length;
+        return new MazeReport.River(path.length - 1, (double) path.length / n, turns, branches,
+                branches == 0 ? 0 : (double) offPath / branches);
+    }
+
+    private static int trimmedLength(long[] histogram) {
+        int length = histogram.length;
+        while (length > 0 && histogram[length - 1] == 0)
+            --length;
+        return length;
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * MazeCache.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, size-bounded LRU cache of generated mazes and their solutions, keyed by MazeKey.
+ * <p>
+ * The size of the cache is measured in cells. When the bound is exceeded, the least recently used mazes are evicted
+ * and, if a spill directory is configured, written to it as MazeFiles named by their key's digest, so that later
+ * requests map them from disk instead of regenerating them. Concurrent requests for the same missing key share a
+ * single generation.
+ */
+public final class MazeCache {
+    /**
+     * A snapshot of the cache counters, for sizing the cache.
+     * @param hits      requests served from memory
+     * @param diskHits  requests served from the spill directory
+     * @param misses    requests that required generation
+     * @param evictions mazes evicted from memory
+     * @param entries   the number of mazes in memory
+     * @param cells     the total number of cells of the mazes in memory
+     */
+    public record Stats(long hits, long diskHits, long misses, long evictions, int entries, long cells) {
+    }
+
+    private final long maximumCells;
+    private final Path spillDirectory;
+
+    // Guarded by this.
+    private final LinkedHashMap<MazeKey, CachedMaze> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cells;
+
+    private final ConcurrentHashMap<MazeKey, CompletableFuture<CachedMaze>> loading = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create an in-memory cache.
+     * @param maximumCells the maximum total number of cells of the mazes held in memory
+     */
+    public MazeCache(long maximumCells) {
+        this(maximumCells, null);
+    }
+
+    /**
+     * Create a cache that spills evicted mazes to disk.
+     * @param maximumCells   the maximum total number of cells of the mazes held in memory
+     * @param spillDirectory the directory in which to keep evicted mazes, or null to discard them
+     */
+    public MazeCache(long maximumCells, Path spillDirectory) {
+        if (maximumCells < 1)
+            throw new IllegalArgumentException("The cache must hold at least one cell.");
+        this.maximumCells = maximumCells;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Get the maze for a key, generating it with the given generator if it is neither in memory nor on disk.
+     * @param key       the key of the maze
+     * @param generator the generator, which must produce the maze described by the key's configuration
+     * @return the cached maze
+     */
+    public CachedMaze get(MazeKey key, MazeGenerator generator) {
+        final CachedMaze cached = lookup(key);
+        if (cached != null)
+            return cached;
+
+        final CompletableFuture<CachedMaze> future = new CompletableFuture<>();
+        final CompletableFuture<CachedMaze> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            hits.increment();
+            return inFlight.join();
+        }
+
+        try {
+            // Another thread may have finished loading the key before we claimed it.
+            CachedMaze result = lookup(key);
+            if (result == null) {
+                result = readSpill(key);
+                if (result != null)
+                    diskHits.increment();
+                else {
+                    misses.increment();
+                    final Maze maze = generator.generate(key.rows(), key.columns(), key.seed());
+                    result = new CachedMaze(maze.readOnlyCopy(), null);
+                }
+                insert(key, result);
+            }
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key);
+        }
+    }
+
+    /**
+     * Remove all the mazes from memory, spilling them if a spill directory is configured.
+     */
+    public void clear() {
+        final List<Map.Entry<MazeKey, CachedMaze>> evicted;
+        synchronized (this) {
+            evicted = new ArrayList<>(entries.entrySet());
+            entries.clear();
+            cells = 0;
+        }
+        evicted.forEach(e -> spill(e.getKey(), e.getValue()));
+    }
+
+    public Stats stats() {
+        synchronized (this) {
+            return new Stats(hits.sum(), diskHits.sum(), misses.sum(), evictions.sum(), entries.size(), cells);
+        }
+    }
+
+    private CachedMaze lookup(MazeKey key) {
+        final CachedMaze cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        if (cached != null)
+            hits.increment();
+        return cached;
+    }
+
+    private void insert(MazeKey key, CachedMaze cached) {
+        final List<Map.Entry<MazeKey, CachedMaze>> evicted = new ArrayList<>();
+        synchronized (this) {
+            entries.put(key, cached);
+            cells += (long) key.rows() * key.columns();
+
+            // Evict the least recently used mazes, but always keep the newest.
+            final Iterator<Map.Entry<MazeKey, CachedMaze>> it = entries.entrySet().iterator();
+            while (cells > maximumCells && entries.size() > 1) {
+                final Map.Entry<MazeKey, CachedMaze> eldest = it.next();
+                evicted.add(Map.entry(eldest.getKey(), eldest.getValue()));
+                cells -= (long) eldest.getKey().rows() * eldest.getKey().columns();
+                it.remove();
+            }
+        }
+        evictions.add(evicted.size());
+        evicted.forEach(e -> spill(e.getKey(), e.getValue()));
+    }
+
+    private Path spillPath(MazeKey key) {
+        return spillDirectory.resolve(key.digest() + ".maze");
+    }
+
+    /**
+     * Write an evicted maze to the spill directory, unless it is already there with at least as much information.
+     */
+    private void spill(MazeKey key, CachedMaze cached) {
+        if (spillDirectory == null)
+            return;
+        final Path path = spillPath(key);
+        final List<Point> solution = cached.solutionIfComputed();
+        if (Files.exists(path) && solution == null)
+            return;
+
+        try {
+            Files.createDirectories(spillDirectory);
+            MazeFile.write(path, cached.maze(), key.configuration(), key.seed(), solution);
+        } catch (IOException e) {
+            // The spill directory is only an optimization: the maze can always be regenerated.
+        }
+    }
+
+    /**
+     * Load a spilled maze by mapping its file, so the walls are not copied onto the heap. The file is checked against
+     * its checksum first, since a corrupted maze may not even be perfect.
+     */
+    private CachedMaze readSpill(MazeKey key) {
+        if (spillDirectory == null)
+            return null;
+        final Path path = spillPath(key);
+        if (!Files.exists(path))
+            return null;
+
+        try (MazeFile file = MazeFile.open(path)) {
+            if (file.rows() != key.rows() || file.columns() != key.columns() || file.seed() != key.seed()
+                    || !file.metadata().equals(key.configuration()))
+                return null;
+            if (file.verify())
+                return new CachedMaze(file.maze(), file.solution());
+        } catch (IOException | IllegalArgumentException e) {
+            // The file is damaged, or cannot be read.
+        }
+
+        // A damaged spill file is treated as a miss, and deleted so that the maze is spilled afresh when evicted.
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Left in place, it is checked again whenever it is read.
+        }
+        return null;
+    }
+}
@@ -0,0 +1,274 @@
+/**
+ * MazeFile.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32C;
+
+/**
+ * A versioned binary file holding a maze, which can be loaded without copying by mapping its wall planes.
+ * <p>
+ * All values are little-endian. The layout is:
+ * <pre>
+ *   0  magic            long   "VMAZE" followed by three zero bytes
+ *   8  version          int    1
+ *  12  flags            int    bit 0 set if there is a solution
+ *  16  rows             int
+ *  20  columns          int
+ *  24  seed             long   the master seed the maze was generated from
+ *  32  metadata length  int    the length of the UTF-8 generator metadata
+ *  36  solution length  int    the number of cells in the solution, or 0
+ *  40  planes offset    long   the offset of the wall planes
+ *  48  reserved         16 bytes
+ *  64  metadata, zero padded to a multiple of 8
+ *      the east plane, then the south plane, as in Maze: Maze.wordCount(rows, columns) words each
+ *      the solution: (row, column) int pairs
+ *      the CRC32C of all the preceding bytes, as a long
+ * </pre>
+ */
+public final class MazeFile implements AutoCloseable {
+    private static final long MAGIC = 0x000000455A414D56L;
+    private static final int VERSION = 1;
+    private static final int HAS_SOLUTION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final int rows;
+    private final int columns;
+    private final long seed;
+    private final String metadata;
+    private final long planesOffset;
+    private final int solutionLength;
+    private final boolean hasSolution;
+    private final MappedWallStore walls;
+    private final Maze maze;
+
+    private MazeFile(Path path) throws IOException {
+        this.path = path;
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        final String text;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getLong(0) != MAGIC)
+                throw new IOException("Not a maze file: " + path);
+            if (header.getInt(8) != VERSION)
+                throw new IOException("Unsupported maze file version " + header.getInt(8) + ": " + path);
+            hasSolution = (header.getInt(12) & HAS_SOLUTION) != 0;
+            rows = header.getInt(16);
+            columns = header.getInt(20);
+            seed = header.getLong(24);
+            final int metadataLength = header.getInt(32);
+            solutionLength = header.getInt(36);
+            planesOffset = header.getLong(40);
+
+            // Check the header against itself and the file before trusting any length in it.
+            if (rows < 1 || columns < 1 || metadataLength < 0 || solutionLength < 0
+                    || (!hasSolution && solutionLength != 0))
+                throw new IOException("Maze file has a malformed header: " + path);
+            if (planesOffset < HEADER_SIZE + (long) metadataLength || (planesOffset & 7) != 0
+                    || planesOffset > channel.size())
+                throw new IOException("Maze file has a malformed planes offset: " + path);
+            final long expectedSize = solutionOffset() + 8L * solutionLength + Long.BYTES;
+            if (channel.size() != expectedSize)
+                throw new IOException("Maze file has the wrong length: " + path);
+
+            final ByteBuffer metadataBytes = ByteBuffer.allocate(metadataLength);
+            readFully(channel, metadataBytes, HEADER_SIZE);
+            text = new String(metadataBytes.array(), StandardCharsets.UTF_8);
+        }
+        metadata = text;
+        walls = MappedWallStore.open(path, planesOffset, Maze.wordCount(rows, columns), true);
+        maze = new Maze(rows, columns, walls);
+    }
+
+    /**
+     * Open a maze file by mapping it. Only the header is read: the walls are paged in as they are used, and the
+     * checksum is only checked by verify.
+     * @param path the file
+     * @return the MazeFile, which should be closed when its maze is no longer needed
+     * @throws IOException if the file cannot be read, or its header is malformed or disagrees with its length
+     */
+    public static MazeFile open(Path path) throws IOException {
+        return new MazeFile(path);
+    }
+
+    /**
+     * Write a maze file, streaming the walls from the maze. The file is written under a temporary name and then
+     * moved into place, so readers never see a partial file.
+     * @param path     the file
+     * @param maze     the maze
+     * @param metadata a description of the generator, e.g. a MazeKey configuration
+     * @param seed     the master seed the maze was generated from
+     * @param solution the solution to store, or null
+     */
+    public static void write(Path path, Maze maze, String metadata, long seed, List<Point> solution) throws IOException {
+        final byte[] metadataBytes = metadata.getBytes(StandardCharsets.UTF_8);
+        final long planesOffset = HEADER_SIZE + ((metadataBytes.length + 7L) & ~7L);
+        final Path directory = path.toAbsolutePath().getParent();
+        // Not Files.createTempFile, whose owner-only permissions the move would carry over to the maze file.
+        final Path temp = directory.resolve(path.getFileName() + "."
+                + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        final FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        try {
+            try (channel) {
+                final CRC32C crc = new CRC32C();
+                final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+                buffer.putLong(MAGIC)
+                        .putInt(VERSION)
+                        .putInt(solution == null ? 0 : HAS_SOLUTION)
+                        .putInt(maze.getRows())
+                        .putInt(maze.getColumns())
+                        .putLong(seed)
+                        .putInt(metadataBytes.length)
+                        .putInt(solution == null ? 0 : solution.size())
+                        .putLong(planesOffset)
+                        .putLong(0)
+                        .putLong(0);
+                for (int i = 0; i < metadataBytes.length; ++i) {
+                    if (!buffer.hasRemaining())
+                        flush(channel, buffer, crc);
+                    buffer.put(metadataBytes[i]);
+                }
+                for (long i = HEADER_SIZE + metadataBytes.length; i < planesOffset; ++i) {
+                    if (!buffer.hasRemaining())
+                        flush(channel, buffer, crc);
+                    buffer.put((byte) 0);
+                }
+
+                for (final Maze.Direction direction : List.of(Maze.Direction.EAST, Maze.Direction.SOUTH))
+                    for (int r = 0; r < maze.getRows(); ++r)
+                        for (int w = 0; w < maze.wordsPerRow(); ++w) {
+                            if (buffer.remaining() < Long.BYTES)
+                                flush(channel, buffer, crc);
+                            buffer.putLong(maze.wallWord(direction, r, w));
+                        }
+
+                if (solution != null)
+                    for (final Point p : solution) {
+                        if (buffer.remaining() < 2 * Integer.BYTES)
+                            flush(channel, buffer, crc);
+                        buffer.putInt(p.x).putInt(p.y);
+                    }
+                flush(channel, buffer, crc);
+
+                buffer.putLong(crc.getValue());
+                buffer.flip();
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new IOException("Unexpected end of maze file.");
+            position += read;
+        }
+    }
+
+    private long solutionOffset() {
+        return planesOffset + 2 * Long.BYTES * Maze.wordCount(rows, columns);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public String metadata() {
+        return metadata;
+    }
+
+    /**
+     * @return the read-only maze, backed directly by the mapped file
+     */
+    public Maze maze() {
+        return maze;
+    }
+
+    public boolean hasSolution() {
+        return hasSolution;
+    }
+
+    /**
+     * @return the immutable stored solution, or null if there is none
+     */
+    public List<Point> solution() throws IOException {
+        if (!hasSolution)
+            return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, solutionOffset(), 8L * solutionLength);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            final List<Point> points = new ArrayList<>(solutionLength);
+            for (int i = 0; i < solutionLength; ++i)
+                points.add(new Point(buffer.getInt(), buffer.getInt()));
+            return Collections.unmodifiableList(points);
+        }
+    }
+
+    /**
+     * Check the file against its checksum, which requires reading all of it.
+     * @return true if the checksum matches
+     */
+    public boolean verify() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long checksumOffset = channel.size() - Long.BYTES;
+            final CRC32C crc = new CRC32C();
+            final long chunk = 1L << 30;
+            for (long position = 0; position < checksumOffset; position += chunk)
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunk, checksumOffset - position)));
+
+            final ByteBuffer stored = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, stored, checksumOffset);
+            return stored.getLong(0) == crc.getValue();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        walls.close();
+    }
+}
@@ -5,59 +5,146 @@
 
 package org.vorpal.maze;
 
-import java.awt.*;
-import java.util.IntSummaryStatistics;
+import java.util.SplittableRandom;
 
 @FunctionalInterface
 public interface MazeGenerator {
-    Maze generate(int rows, int columns);
+    /**
+     * Generate a maze. All randomness is derived from the seed, so the same seed always produces the same maze.
+     * @param rows    the number of rows
+     * @param columns the number of columns
+     * @param seed    the master seed
+     * @return the Maze
+     */
+    Maze generate(int rows, int columns, long seed);
+
+    /**
+     * Generate a maze from a randomly chosen seed.
+     */
+    default Maze generate(int rows, int columns) {
+        return generate(rows, columns, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Generate a maze into an existing Maze with every wall filled, such as one backed by a MappedWallStore.
+     * By default, the maze is generated on the heap and copied across: generators that can carve in place override
+     * this so that the maze is never held on the heap.
+     * @param maze the Maze to carve
+     * @param seed the master seed
+     */
+    default void generateInto(Maze maze, long seed) {
+        maze.copyFrom(generate(maze.getRows(), maze.getColumns(), seed));
+    }
+
+    /**
+     * Generate a maze into an existing Maze with every wall filled, reporting the generation to a listener and as a
+     * JFR event. Generators that can report more, such as the phases of their stages, override this.
+     * @param maze     the Maze to carve
+     * @param seed     the master seed
+     * @param listener the listener, or null
+     */
+    default void generateInto(Maze maze, long seed, GenerationListener listener) {
+        final GenerationEvents.Generation event = new GenerationEvents.Generation();
+        final long start = System.nanoTime();
+        event.begin();
+        generateInto(maze, seed);
+        if (listener != null)
+            listener.generated(this, maze, seed, System.nanoTime() - start);
+        event.commit(this, maze, seed);
+    }
+
+    /**
+     * Wrap this MazeGenerator so that every maze it generates is checked by a MazeValidator.
+     * @return a MazeGenerator whose generate and generateInto throw an IllegalStateException if a maze is not perfect
+     */
+    default MazeGenerator validated() {
+        final MazeGenerator generator = this;
+        return new MazeGenerator() {
+            @Override
+            public Maze generate(int rows, int columns, long seed) {
+                final Maze maze = generator.generate(rows, columns, seed);
+                MazeValidator.validate(maze).requirePerfect();
+                return maze;
+            }
+
+            @Override
+            public void generateInto(Maze maze, long seed) {
+                generator.generateInto(maze, seed);
+                MazeValidator.validate(maze).requirePerfect();
+            }
+        };
+    }
 
     /**
      * Lift this MazeGenerator into a RegionMazeGenerator.
+     * <p>
+     * A maze is generated over the bounding box of the cells, and only its passages between two of the cells are
+     * carved: no wall is ever filled, so the borders of the region and any doors through them are left alone. The
+     * passages of the box maze split the region into a forest, whose trees are then joined by carving randomly
+     * chosen walls between them. This costs time in proportion to the bounding box, so generators that can carve
+     * regions directly, such as BacktrackerMazeGenerator, KruskalMazeGenerator and WilsonMazeGenerator, return
+     * themselves instead.
      * @return a RegionMazeGenerator that will generate a maze only over the given cells
      */
     default RegionMazeGenerator adapt() {
-        return (maze, cells) -> {
-            final IntSummaryStatistics rows = cells.stream().mapToInt(p -> p.x).summaryStatistics();
-            final IntSummaryStatistics columns = cells.stream().mapToInt(p -> p.y).summaryStatistics();
-            final int minR = rows.getMin();
-            final int maxR = rows.getMax();
-            final int minC = columns.getMin();
-            final int maxC = columns.getMax();
-
-            final int subRows = maxR - minR + 1;
-            final int subCols = maxC - minC + 1;
+        return (maze, cells, rnd) -> {
+            if (cells.isEmpty())
+                return;
+            final int minR = cells.minRow();
+            final int minC = cells.minColumn();
+            final int subRows = cells.maxRow() - minR + 1;
+            final int subCols = cells.maxColumn() - minC + 1;
 
             // Generate a submaze in the box.
-            final Maze submaze = generate(subRows, subCols);
-
-            // Copy the walls back into the main maze for each cell in cells.
-            cells.forEach(cell -> {
-                final Point fillCell = new Point(cell.x - minR, cell.y - minC);
-                // North
-                if (submaze.hasWall(fillCell, Maze.Direction.NORTH))
-                    maze.fillWall(cell, Maze.Direction.NORTH);
-                else
-                    maze.carveWall(cell, Maze.Direction.NORTH);
-
-                // East
-                if (submaze.hasWall(fillCell, Maze.Direction.EAST))
-                    maze.fillWall(cell, Maze.Direction.EAST);
-                else
-                    maze.carveWall(cell, Maze.Direction.EAST);
-
-                // South
-                if (submaze.hasWall(fillCell, Maze.Direction.SOUTH))
-                    maze.fillWall(cell, Maze.Direction.SOUTH);
-                else
-                    maze.carveWall(cell, Maze.Direction.SOUTH);
-
-                // West
-                if (submaze.hasWall(fillCell, Maze.Direction.WEST))
-                    maze.fillWall(cell, Maze.Direction.WEST);
-                else
-                    maze.carveWall(cell, Maze.Direction.WEST);
-            });
+            final Maze submaze = generate(subRows, subCols, rnd.nextLong());
+
+            // Carve the passages of the submaze inside the region, and collect the other walls inside it.
+            final CellNeighbours graph = new CellNeighbours(cells);
+            final int n = graph.size();
+            final int[] parent = new int[n];
+            for (int i = 0; i < n; ++i)
+                parent[i] = i;
+            final int[] walls = new int[2 * n];
+            int wallCount = 0;
+            for (int i = 0; i < n; ++i) {
+                final int id = cells.get(i);
+                final int r = cells.row(id) - minR;
+                final int c = cells.column(id) - minC;
+                for (final Maze.Direction d : new Maze.Direction[] { Maze.Direction.EAST, Maze.Direction.SOUTH }) {
+                    final int other = graph.neighbour(i, d);
+                    if (other < 0)
+                        continue;
+                    if (submaze.hasWall(r, c, d))
+                        walls[wallCount++] = d == Maze.Direction.EAST ? 2 * i : 2 * i + 1;
+                    else {
+                        graph.carve(maze, i, other);
+                        parent[find(parent, i)] = find(parent, other);
+                    }
+                }
+            }
+
+            // Join the trees of the forest across the remaining walls, in a random order.
+            for (int w = wallCount - 1; w >= 0; --w) {
+                final int j = rnd.nextInt(w + 1);
+                final int wall = walls[j];
+                walls[j] = walls[w];
+                final int i = wall >>> 1;
+                final int other = graph.neighbour(i, (wall & 1) == 0 ? Maze.Direction.EAST : Maze.Direction.SOUTH);
+                final int r1 = find(parent, i);
+                final int r2 = find(parent, other);
+                if (r1 != r2) {
+                    graph.carve(maze, i, other);
+                    parent[r1] = r2;
+                }
+            }
         };
     }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
 }
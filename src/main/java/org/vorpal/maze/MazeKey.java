@@ -0,0 +1,37 @@
+/**
+ * MazeKey.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Identifies a generated maze: since generation is deterministic in the seed, the generator's configuration, the
+ * dimensions, and the seed determine the maze completely.
+ * @param configuration a stable description of everything that affects the generator's output, e.g. the generator,
+ *                      seed strategy, count function, and metric
+ * @param rows          the number of rows
+ * @param columns       the number of columns
+ * @param seed          the master seed
+ */
+public record MazeKey(String configuration, int rows, int columns, long seed) {
+    /**
+     * @return the SHA-256 digest of the key in hexadecimal, which is stable across runs and suitable as a file name
+     */
+    public String digest() {
+        try {
+            final MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(configuration.getBytes(StandardCharsets.UTF_8));
+            sha.update(ByteBuffer.allocate(16).putInt(rows).putInt(columns).putLong(seed).array());
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * MazeReport.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.List;
+
+/**
+ * The quality metrics of a maze, as computed by MazeAnalytics.
+ * Cells are identified by their ids row * columns + column.
+ *
+ * @param rows            the number of rows
+ * @param columns         the number of columns
+ * @param passages        the number of open walls between cells
+ * @param diameter        the length of the longest path found, which is exact for a perfect maze
+ * @param diameterStart   the id of one end of the longest path
+ * @param diameterEnd     the id of the other end of the longest path
+ * @param degreeCounts    the number of cells with each number of open walls, from 0 to 4; those with 1 are dead ends
+ * @param corridorLengths the number of corridors of each length, where a corridor is a maximal run of passages whose
+ *                        inner cells have exactly two open walls
+ * @param river           the statistics of the solution from the top left to the bottom right corner
+ * @param regions         the region sizes at each depth of the Voronoi subdivision, or an empty list if they were not
+ *                        recorded
+ */
+public record MazeReport(int rows, int columns, long passages, int diameter, int diameterStart, int diameterEnd,
+                         long[] degreeCounts, long[] corridorLengths, River river,
+                         List<RegionStatistics.Level> regions) {
+    /**
+     * The CSV header matching toCsv.
+     */
+    public static final String CSV_HEADER = "rows,columns,passages,diameter,deadEnds,junctions,corridors,"
+            + "meanCorridor,maxCorridor,solutionLength,solutionCoverage,solutionTurns,branches,meanBranchSize";
+
+    /**
+     * The "river" of a maze: how the solution meanders, and how the rest of the maze hangs off it.
+     * A maze with a high river has few, long branches off its solution, and one with a low river has many short ones.
+     *
+     * @param length         the number of steps in the solution, or -1 if there is none
+     * @param coverage       the fraction of the cells on the solution
+     * @param turns          the number of changes of direction along the solution
+     * @param branches       the number of passages leaving the solution
+     * @param meanBranchSize the mean number of cells off the solution per branch
+     */
+    public record River(int length, double coverage, int turns, long branches, double meanBranchSize) {}
+
+    public long cells() {
+        return (long) rows * columns;
+    }
+
+    public long deadEnds() {
+        return degreeCounts[1];
+    }
+
+    /**
+     * @return the number of cells with three or more open walls
+     */
+    public long junctions() {
+        return degreeCounts[3] + degreeCounts[4];
+    }
+
+    public long corridors() {
+        long count = 0;
+        for (final long c : corridorLengths)
+            count += c;
+        return count;
+    }
+
+    public double meanCorridorLength() {
+        long count = 0;
+        long total = 0;
+        for (int length = 0; length < corridorLengths.length; ++length) {
+            count += corridorLengths[length];
+            total += length * corridorLengths[length];
+        }
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    public int maximumCorridorLength() {
+        for (int length = corridorLengths.length - 1; length > 0; --length)
+            if (corridorLengths[length] > 0)
+                return length;
+        return 0;
+    }
+
+    /**
+     * @return the scalar metrics as a CSV row, in the order of CSV_HEADER
+     */
+    public String toCsv() {
+        return rows + "," + columns + "," + passages + "," + diameter + "," + deadEnds() + "," + junctions() + ","
+                + corridors() + "," + meanCorridorLength() + "," + maximumCorridorLength() + ","
+                + river.length() + "," + river.coverage() + "," + river.turns() + "," + river.branches() + ","
+                + river.meanBranchSize();
+    }
+}
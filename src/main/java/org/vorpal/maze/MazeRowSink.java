@@ -0,0 +1,21 @@
+/**
+ * MazeRowSink.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+/**
+ * Receives the rows of a maze, in order, from a StreamingMazeGenerator.
+ */
+@FunctionalInterface
+public interface MazeRowSink {
+    /**
+     * Accept a finished row. The arrays are in the format of the Maze wall planes, i.e. bit b of word w is the wall
+     * of the cell in column 64 * w + b, and they are reused for the next row, so they must be copied if kept.
+     * @param row   the index of the row
+     * @param east  the east walls of the row, in Maze.wordsPerRow(columns) words
+     * @param south the south walls of the row, in Maze.wordsPerRow(columns) words
+     */
+    void accept(int row, long[] east, long[] south);
+}
@@ -20,41 +20,34 @@ public final class MazeSolver {
      * @return list of Points from start (inclusive) to end (inclusive), or empty if no path
      */
     public static List<Point> solve(Maze maze, Point start, Point end) {
-        final int rows = maze.getRows();
-        final int cols = maze.getColumns();
-
-        Set<Point> visited = new HashSet<>();
-        Map<Point, Point> parent = new HashMap<>();
-        Deque<Point> queue = new ArrayDeque<>();
-
-        queue.add(start);
-        visited.add(start);
-        parent.put(start, null);
-
-        while (!queue.isEmpty()) {
-            Point cur = queue.removeFirst();
-            if (cur.equals(end)) break;
+        return solve(maze, start, end, new SolverWorkspace());
+    }
 
-            for (final Maze.Direction d : Maze.Direction.values()) {
-                if (!maze.hasWall(cur, d)) {
-                    final Point nbr = Maze.neighbour(cur, d);
-                    if (nbr.x >= 0 && nbr.x < rows && nbr.y >= 0 && nbr.y < cols && !visited.contains(nbr)) {
-                        visited.add(nbr);
-                        parent.put(nbr, cur);
-                        queue.addLast(nbr);
-                    }
-                }
-            }
-        }
+    /**
+     * Solve the maze (via the shortest path) using BFS, reusing a workspace across queries.
+     * @param maze      the Maze to solve
+     * @param start     the starting point
+     * @param end       the goal point
+     * @param workspace the workspace
+     * @return list of Points from start (inclusive) to end (inclusive), or empty if no path
+     */
+    public static List<Point> solve(Maze maze, Point start, Point end, SolverWorkspace workspace) {
+        final int cols = maze.getColumns();
+        final int[] path = workspace.solve(maze, start.x * cols + start.y, end.x * cols + end.y);
+        return toPoints(path, cols);
+    }
 
-        // Reconstruct path
-        if (!visited.contains(end))
-            return Collections.emptyList();
-        final List<Point> path = new ArrayList<>();
-        for (Point at = end; at != null; at = parent.get(at))
-            path.add(at);
-        Collections.reverse(path);
-        return Collections.unmodifiableList(path);
+    /**
+     * Convert a path of cell ids into an immutable list of Points.
+     * @param path    the cell ids
+     * @param columns the number of columns in the maze
+     * @return the Points
+     */
+    public static List<Point> toPoints(int[] path, int columns) {
+        final List<Point> points = new ArrayList<>(path.length);
+        for (final int cell : path)
+            points.add(new Point(cell / columns, cell % columns));
+        return Collections.unmodifiableList(points);
     }
 
     /**
@@ -0,0 +1,167 @@
+/**
+ * MazeTreeIndex.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * An index over a perfect maze answering path and distance queries without a search.
+ * <p>
+ * A perfect maze is a spanning tree of its cells. The index roots the tree at cell 0 and builds a heavy-light
+ * decomposition in linear time: any root path crosses O(log n) chains, so the lowest common ancestor of two cells,
+ * and hence their distance, is found in O(log n) time, and a path is extracted in time proportional to its length.
+ * Unlike an Euler tour with a sparse table or binary lifting, this needs only O(n) memory, which matters for mazes
+ * with tens of millions of cells. The index is immutable and can be queried from many threads at once.
+ */
+public final class MazeTreeIndex {
+    private final int columns;
+    private final int[] parent;
+    private final int[] depth;
+    private final int[] head;
+
+    private MazeTreeIndex(int columns, int[] parent, int[] depth, int[] head) {
+        this.columns = columns;
+        this.parent = parent;
+        this.depth = depth;
+        this.head = head;
+    }
+
+    /**
+     * Build the index of a maze.
+     * @param maze the maze
+     * @return the index
+     * @throws IllegalArgumentException if the maze is not perfect, i.e. its passages do not form a spanning tree
+     */
+    public static MazeTreeIndex build(Maze maze) {
+        final long cells = (long) maze.getRows() * maze.getColumns();
+        if (cells > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze has too many cells for int cell ids.");
+        final int n = (int) cells;
+        if (maze.countOpenWalls() != n - 1)
+            throw new IllegalArgumentException("Maze is not a tree: it has " + maze.countOpenWalls()
+                    + " passages for " + n + " cells.");
+
+        // BFS from the root: with n - 1 passages, the maze is a tree exactly when every cell is reached, and the
+        // only reached neighbour of a cell is its parent unless the passages contain a cycle.
+        final int columns = maze.getColumns();
+        final int[] parent = new int[n];
+        final int[] depth = new int[n];
+        final int[] order = new int[n];
+        final boolean[] visited = new boolean[n];
+        parent[0] = -1;
+        visited[0] = true;
+        int tail = 1;
+        for (int head = 0; head < tail; ++head) {
+            final int cell = order[head];
+            final int r = cell / columns;
+            final int c = cell - r * columns;
+            for (final Maze.Direction d : Maze.Direction.values()) {
+                if (maze.hasWall(r, c, d))
+                    continue;
+                final int next = switch (d) {
+                    case NORTH -> cell - columns;
+                    case EAST -> cell + 1;
+                    case SOUTH -> cell + columns;
+                    case WEST -> cell - 1;
+                };
+                if (next == parent[cell])
+                    continue;
+                if (visited[next])
+                    throw new IllegalArgumentException("Maze is not a tree: its passages contain a cycle through cell "
+                            + next + ".");
+                visited[next] = true;
+                parent[next] = cell;
+                depth[next] = depth[cell] + 1;
+                order[tail++] = next;
+            }
+        }
+        if (tail != n)
+            throw new IllegalArgumentException("Maze is not a tree: only " + tail + " of " + n + " cells are connected.");
+
+        // Subtree sizes and heavy children, bottom-up.
+        final int[] size = new int[n];
+        final int[] heavy = new int[n];
+        Arrays.fill(heavy, -1);
+        for (int i = n - 1; i > 0; --i) {
+            final int cell = order[i];
+            final int p = parent[cell];
+            size[cell] += 1;
+            size[p] += size[cell];
+            if (heavy[p] < 0 || size[cell] > size[heavy[p]])
+                heavy[p] = cell;
+        }
+
+        // Each cell continues its parent's chain if it is the heavy child, and starts a new chain otherwise.
+        final int[] head = size;
+        head[0] = 0;
+        for (int i = 1; i < n; ++i) {
+            final int cell = order[i];
+            head[cell] = heavy[parent[cell]] == cell ? head[parent[cell]] : cell;
+        }
+        return new MazeTreeIndex(columns, parent, depth, head);
+    }
+
+    /**
+     * @return the lowest common ancestor of two cells, with the tree rooted at cell 0
+     */
+    public int lowestCommonAncestor(int a, int b) {
+        while (head[a] != head[b]) {
+            if (depth[head[a]] > depth[head[b]])
+                a = parent[head[a]];
+            else
+                b = parent[head[b]];
+        }
+        return depth[a] < depth[b] ? a : b;
+    }
+
+    /**
+     * @return the number of steps on the path between two cells
+     */
+    public int distance(int a, int b) {
+        return depth[a] + depth[b] - 2 * depth[lowestCommonAncestor(a, b)];
+    }
+
+    /**
+     * @return the ids of the cells on the path from a (inclusive) to b (inclusive)
+     */
+    public int[] path(int a, int b) {
+        final int lca = lowestCommonAncestor(a, b);
+        final int up = depth[a] - depth[lca];
+        final int[] path = new int[up + depth[b] - depth[lca] + 1];
+        int i = 0;
+        for (int cell = a; cell != lca; cell = parent[cell])
+            path[i++] = cell;
+        path[i] = lca;
+        i = path.length - 1;
+        for (int cell = b; cell != lca; cell = parent[cell])
+            path[i--] = cell;
+        return path;
+    }
+
+    /**
+     * @return the path between two cells as an immutable list of Points, as per MazeSolver.solve
+     */
+    public List<Point> path(Point a, Point b) {
+        return MazeSolver.toPoints(path(a.x * columns + a.y, b.x * columns + b.y), columns);
+    }
+
+    /**
+     * Answer many distance queries in parallel.
+     * @param from the first cell of each query
+     * @param to   the second cell of each query
+     * @return the distance for each query
+     */
+    public int[] distances(int[] from, int[] to) {
+        if (from.length != to.length)
+            throw new IllegalArgumentException("Every query needs two cells.");
+        final int[] result = new int[from.length];
+        IntStream.range(0, from.length).parallel().forEach(i -> result[i] = distance(from[i], to[i]));
+        return result;
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * MazeValidator.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Checks that a maze is perfect: that its passages connect every cell, without any cycles.
+ * <p>
+ * The rows are split into bands that run a union-find over their own cells in parallel, reading the open walls a word
+ * at a time, and the bands are then merged by the passages that cross the seams between them. A passage that joins
+ * two cells already connected closes a cycle, and every component other than the one containing cell 0 is cut off.
+ * Cells are identified by their ids row * columns + column.
+ */
+public final class MazeValidator {
+    /**
+     * The maximum number of offending cells of each kind that are reported.
+     */
+    public static final int MAXIMUM_REPORTED = 64;
+
+    private MazeValidator() {}
+
+    /**
+     * The outcome of a validation.
+     * @param cells             the number of cells
+     * @param passages          the number of open walls between cells
+     * @param components        the number of connected components
+     * @param cycles            the number of passages that close a cycle
+     * @param cycleCells        up to MAXIMUM_REPORTED cells whose east or south passage closes a cycle
+     * @param disconnectedCells up to MAXIMUM_REPORTED cells, one per component, that cannot be reached from cell 0
+     */
+    public record Result(long cells, long passages, int components, long cycles,
+                         int[] cycleCells, int[] disconnectedCells) {
+        public boolean isPerfect() {
+            return components == 1 && cycles == 0;
+        }
+
+        /**
+         * @return this result
+         * @throws IllegalStateException if the maze is not perfect, listing the offending cells
+         */
+        public Result requirePerfect() {
+            if (!isPerfect())
+                throw new IllegalStateException("Maze is not perfect: " + passages + " passages for " + cells
+                        + " cells, " + components + " components, and " + cycles + " cycles; cycles close at "
+                        + Arrays.toString(cycleCells) + ", and unreachable cells include "
+                        + Arrays.toString(disconnectedCells) + ".");
+            return this;
+        }
+    }
+
+    /**
+     * Validate a maze with one band per few rows for every available processor.
+     */
+    public static Result validate(Maze maze) {
+        return validate(maze, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Validate a maze.
+     * @param maze  the maze
+     * @param bands the number of row bands to process in parallel
+     * @return the result
+     */
+    public static Result validate(Maze maze, int bands) {
+        if (bands < 1)
+            throw new IllegalArgumentException("There must be at least one band.");
+        final int rows = maze.getRows();
+        final int columns = maze.getColumns();
+        final long cellCount = (long) rows * columns;
+        if (cellCount > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze has too many cells for int cell ids.");
+        final int bandCount = Math.min(bands, rows);
+        final int[] parent = new int[(int) cellCount];
+
+        // Join the cells of each band by the passages inside it.
+        final Band[] results = new Band[bandCount];
+        IntStream.range(0, bandCount).parallel().forEach(b -> {
+            final Band band = new Band();
+            final int fromRow = bandStart(b, bandCount, rows);
+            final int toRow = bandStart(b + 1, bandCount, rows);
+            for (int cell = fromRow * columns; cell < toRow * columns; ++cell)
+                parent[cell] = cell;
+            for (int r = fromRow; r < toRow; ++r)
+                joinRow(maze, parent, r, true, r < toRow - 1, band);
+            results[b] = band;
+        });
+
+        // Merge the bands by the passages across the seams.
+        final Band seams = new Band();
+        for (int b = 0; b < bandCount - 1; ++b)
+            joinRow(maze, parent, bandStart(b + 1, bandCount, rows) - 1, false, true, seams);
+
+        // Count the components, and report a cell of each that is not connected to cell 0.
+        final int origin = find(parent, 0);
+        final Band[] roots = new Band[bandCount];
+        IntStream.range(0, bandCount).parallel().forEach(b -> {
+            final Band band = new Band();
+            final int to = bandStart(b + 1, bandCount, rows) * columns;
+            for (int cell = bandStart(b, bandCount, rows) * columns; cell < to; ++cell)
+                if (parent[cell] == cell) {
+                    ++band.count;
+                    if (cell != origin)
+                        band.report(cell);
+                }
+            roots[b] = band;
+        });
+
+        final Band[] cycleBands = Arrays.copyOf(results, bandCount + 1);
+        cycleBands[bandCount] = seams;
+        long cycles = 0;
+        for (final Band band : cycleBands)
+            cycles += band.count;
+        long components = 0;
+        for (final Band band : roots)
+            components += band.count;
+        return new Result(cellCount, maze.countOpenWalls(), (int) components, cycles,
+                collect(cycleBands), collect(roots));
+    }
+
+    /**
+     * The count and the first reported cells of a band.
+     */
+    private static final class Band {
+        long count;
+        final int[] reported = new int[MAXIMUM_REPORTED];
+        int reportedCount;
+
+        void report(int cell) {
+            if (reportedCount < MAXIMUM_REPORTED)
+                reported[reportedCount++] = cell;
+        }
+    }
+
+    private static int bandStart(int band, int bandCount, int rows) {
+        return (int) ((long) band * rows / bandCount);
+    }
+
+    /**
+     * Join the cells of a row to their neighbours across the open east and south walls of the row, as selected,
+     * counting and reporting those that close a cycle.
+     */
+    private static void joinRow(Maze maze, int[] parent, int row, boolean east, boolean south, Band band) {
+        final int columns = maze.getColumns();
+        final int words = maze.wordsPerRow();
+        final long lastValid = columns % 64 == 0 ? -1L : (1L << columns) - 1;
+        final int base = row * columns;
+        for (int w = 0; w < words; ++w) {
+            final long valid = w == words - 1 ? lastValid : -1L;
+            if (east)
+                for (long open = ~maze.wallWord(Maze.Direction.EAST, row, w) & valid; open != 0; open &= open - 1) {
+                    final int cell = base + (w << 6) + Long.numberOfTrailingZeros(open);
+                    if (!union(parent, cell, cell + 1)) {
+                        ++band.count;
+                        band.report(cell);
+                    }
+                }
+            if (south)
+                for (long open = ~maze.wallWord(Maze.Direction.SOUTH, row, w) & valid; open != 0; open &= open - 1) {
+                    final int cell = base + (w << 6) + Long.numberOfTrailingZeros(open);
+                    if (!union(parent, cell, cell + columns)) {
+                        ++band.count;
+                        band.report(cell);
+                    }
+                }
+        }
+    }
+
+    /**
+     * Join the trees of two cells, linking the larger root under the smaller.
+     * @return false if the cells were already connected
+     */
+    private static boolean union(int[] parent, int a, int b) {
+        final int ra = find(parent, a);
+        final int rb = find(parent, b);
+        if (ra == rb)
+            return false;
+        if (ra < rb)
+            parent[rb] = ra;
+        else
+            parent[ra] = rb;
+        return true;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private static int[] collect(Band[] bands) {
+        int count = 0;
+        for (final Band band : bands)
+            count += band.reportedCount;
+        final int[] cells = new int[Math.min(count, MAXIMUM_REPORTED)];
+        int i = 0;
+        for (final Band band : bands)
+            for (int j = 0; j < band.reportedCount && i < cells.length; ++j)
+                cells[i++] = band.reported[j];
+        return cells;
+    }
+}
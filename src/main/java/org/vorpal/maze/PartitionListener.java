@@ -0,0 +1,21 @@
+/**
+ * PartitionListener.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.List;
+
+/**
+ * Receives the Voronoi partition of every stage of a VoronoiMazeGenerator.
+ * When the subdivision runs in parallel, a listener is called from several threads at once.
+ */
+@FunctionalInterface
+public interface PartitionListener {
+    /**
+     * @param stage   the stage that was partitioned
+     * @param regions the regions of the stage, in seed order
+     */
+    void partitioned(Stage stage, List<CellSet> regions);
+}
@@ -0,0 +1,67 @@
+/**
+ * PhaseTimer.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+/**
+ * Times the phases of one stage of a VoronoiMazeGenerator for a GenerationListener and a JFR event. When there is no
+ * listener and the event is disabled, it never reads the clock.
+ */
+final class PhaseTimer {
+    private static final int PHASES = GenerationListener.Phase.values().length;
+
+    private final GenerationListener listener;
+    private final Stage stage;
+    private final GenerationEvents.VoronoiStage event;
+    private final boolean enabled;
+    private final long[] nanos;
+    private long last;
+
+    PhaseTimer(GenerationListener listener, Stage stage) {
+        this.listener = listener;
+        this.stage = stage;
+        event = new GenerationEvents.VoronoiStage();
+        enabled = listener != null || event.isEnabled();
+        nanos = enabled ? new long[PHASES] : null;
+        if (enabled) {
+            event.begin();
+            last = System.nanoTime();
+        }
+    }
+
+    /**
+     * End a phase, which started when the previous one ended.
+     */
+    void lap(GenerationListener.Phase phase) {
+        if (!enabled)
+            return;
+        final long now = System.nanoTime();
+        final long elapsed = now - last;
+        last = now;
+        nanos[phase.ordinal()] = elapsed;
+        if (listener != null)
+            listener.phase(stage, phase, elapsed);
+    }
+
+    /**
+     * Commit the event for the stage.
+     * @param seeds the number of seeds, or 0 if the stage was carved by the fallback
+     */
+    void commit(int seeds) {
+        if (!enabled || !event.shouldCommit())
+            return;
+        event.depth = stage.depth();
+        event.cells = stage.cells().size();
+        event.seeds = seeds;
+        event.fallback = seeds == 0;
+        event.seedsTime = nanos[GenerationListener.Phase.SEEDS.ordinal()];
+        event.labelTime = nanos[GenerationListener.Phase.LABEL.ordinal()];
+        event.splitTime = nanos[GenerationListener.Phase.SPLIT.ordinal()];
+        event.adjacencyTime = nanos[GenerationListener.Phase.ADJACENCY.ordinal()];
+        event.joinTime = nanos[GenerationListener.Phase.JOIN.ordinal()];
+        event.fallbackTime = nanos[GenerationListener.Phase.FALLBACK.ordinal()];
+        event.commit();
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * RectangleCellSet.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * An implicit CellSet of all the cells in a rectangle of the grid, which requires no per-cell storage.
+ */
+final class RectangleCellSet implements CellSet {
+    private final int gridRows;
+    private final int gridColumns;
+    private final int row;
+    private final int column;
+    private final int height;
+    private final int width;
+
+    RectangleCellSet(int gridRows, int gridColumns, int row, int column, int height, int width) {
+        if (row < 0 || column < 0 || height < 0 || width < 0 || row + height > gridRows || column + width > gridColumns)
+            throw new IllegalArgumentException("Rectangle does not fit in the grid.");
+        if ((long) gridRows * gridColumns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Grid has too many cells for int cell ids.");
+        this.gridRows = gridRows;
+        this.gridColumns = gridColumns;
+        this.row = row;
+        this.column = column;
+        this.height = height;
+        this.width = width;
+    }
+
+    @Override
+    public int gridRows() {
+        return gridRows;
+    }
+
+    @Override
+    public int gridColumns() {
+        return gridColumns;
+    }
+
+    @Override
+    public int size() {
+        return height * width;
+    }
+
+    @Override
+    public int get(int index) {
+        return (row + index / width) * gridColumns + column + index % width;
+    }
+
+    @Override
+    public int indexOf(int id) {
+        if (id < 0)
+            return -1;
+        final int r = id / gridColumns - row;
+        final int c = id % gridColumns - column;
+        if (r < 0 || r >= height || c < 0 || c >= width)
+            return -1;
+        return r * width + c;
+    }
+
+    @Override
+    public int minRow() {
+        return row;
+    }
+
+    @Override
+    public int maxRow() {
+        return row + height - 1;
+    }
+
+    @Override
+    public int minColumn() {
+        return column;
+    }
+
+    @Override
+    public int maxColumn() {
+        return column + width - 1;
+    }
+
+    @Override
+    public void forEach(IntConsumer action) {
+        for (int r = row; r < row + height; ++r) {
+            final int base = r * gridColumns;
+            for (int c = column; c < column + width; ++c)
+                action.accept(base + c);
+        }
+    }
+
+    @Override
+    public IntStream stream() {
+        if (column == 0 && width == gridColumns)
+            return IntStream.range(row * gridColumns, (row + height) * gridColumns);
+        return CellSet.super.stream();
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * RegionAdjacency.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * The adjacency graph of the regions of a labelled stage.
+ * There is one edge per pair of regions sharing a border, and each edge carries a door: a wall on that border chosen
+ * uniformly at random by reservoir sampling. The graph is built in a single pass over the stage's cells, with the
+ * edges keyed by the packed pair of region labels.
+ */
+public final class RegionAdjacency {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int gridColumns;
+
+    // The edges, in order of discovery.
+    private int edgeCount;
+    private int[] region1 = new int[INITIAL_CAPACITY];
+    private int[] region2 = new int[INITIAL_CAPACITY];
+    private int[] borderLength = new int[INITIAL_CAPACITY];
+    private int[] doorCell = new int[INITIAL_CAPACITY];
+    private boolean[] doorSouth = new boolean[INITIAL_CAPACITY];
+
+    // Open-addressing table from packed region pairs to edge index + 1, with 0 marking an empty slot.
+    private long[] keys = new long[2 * INITIAL_CAPACITY];
+    private int[] slots = new int[2 * INITIAL_CAPACITY];
+
+    private RegionAdjacency(int gridColumns) {
+        this.gridColumns = gridColumns;
+    }
+
+    /**
+     * Build the adjacency graph of a labelled stage.
+     * @param cells  the cells of the stage
+     * @param labels the region of each cell, by index in cells
+     * @param rnd    the source of randomness for placing the doors
+     * @return the RegionAdjacency
+     */
+    public static RegionAdjacency build(CellSet cells, int[] labels, RandomGenerator rnd) {
+        final int columns = cells.gridColumns();
+        final RegionAdjacency adjacency = new RegionAdjacency(columns);
+        final int n = cells.size();
+
+        // The cells are in row-major order, so the east neighbour is the next cell, and a second cursor trails one
+        // row behind to find the south neighbour.
+        int south = 0;
+        for (int i = 0; i < n; ++i) {
+            final int id = cells.get(i);
+            if (i + 1 < n && cells.get(i + 1) == id + 1 && (id + 1) % columns != 0 && labels[i] != labels[i + 1])
+                adjacency.addWall(labels[i], labels[i + 1], id, false, rnd);
+
+            final int southId = id + columns;
+            while (south < n && cells.get(south) < southId)
+                ++south;
+            if (south < n && cells.get(south) == southId && labels[i] != labels[south])
+                adjacency.addWall(labels[i], labels[south], id, true, rnd);
+        }
+        return adjacency;
+    }
+
+    private void addWall(int a, int b, int cell, boolean south, RandomGenerator rnd) {
+        final int lo = Math.min(a, b);
+        final int hi = Math.max(a, b);
+        final long key = ((long) lo << 32) | hi;
+
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (slots[slot] != 0 && keys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        if (slots[slot] == 0) {
+            // A new border: its first wall is the door so far.
+            if (edgeCount == region1.length)
+                growEdges();
+            final int e = edgeCount++;
+            region1[e] = lo;
+            region2[e] = hi;
+            borderLength[e] = 1;
+            doorCell[e] = cell;
+            doorSouth[e] = south;
+            keys[slot] = key;
+            slots[slot] = e + 1;
+            if (2 * edgeCount > keys.length)
+                growTable();
+            return;
+        }
+
+        // Reservoir sampling: the j-th wall along the border replaces the door with probability 1/j.
+        final int e = slots[slot] - 1;
+        if (rnd.nextInt(++borderLength[e]) == 0) {
+            doorCell[e] = cell;
+            doorSouth[e] = south;
+        }
+    }
+
+    private static int hash(long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void growEdges() {
+        final int capacity = 2 * region1.length;
+        region1 = Arrays.copyOf(region1, capacity);
+        region2 = Arrays.copyOf(region2, capacity);
+        borderLength = Arrays.copyOf(borderLength, capacity);
+        doorCell = Arrays.copyOf(doorCell, capacity);
+        doorSouth = Arrays.copyOf(doorSouth, capacity);
+    }
+
+    private void growTable() {
+        final long[] oldKeys = keys;
+        final int[] oldSlots = slots;
+        keys = new long[2 * oldKeys.length];
+        slots = new int[2 * oldSlots.length];
+        final int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldSlots[i] == 0)
+                continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            slots[slot] = oldSlots[i];
+        }
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return the lower region label of edge e
+     */
+    public int region1(int e) {
+        return region1[e];
+    }
+
+    /**
+     * @return the higher region label of edge e
+     */
+    public int region2(int e) {
+        return region2[e];
+    }
+
+    /**
+     * @return the number of walls on the border of edge e
+     */
+    public int borderLength(int e) {
+        return borderLength[e];
+    }
+
+    /**
+     * @return the row of the cell on the north or west side of the door of edge e
+     */
+    public int doorRow(int e) {
+        return doorCell[e] / gridColumns;
+    }
+
+    /**
+     * @return the column of the cell on the north or west side of the door of edge e
+     */
+    public int doorColumn(int e) {
+        return doorCell[e] % gridColumns;
+    }
+
+    /**
+     * @return the direction of the door of edge e from its cell: either EAST or SOUTH
+     */
+    public Maze.Direction doorDirection(int e) {
+        return doorSouth[e] ? Maze.Direction.SOUTH : Maze.Direction.EAST;
+    }
+}
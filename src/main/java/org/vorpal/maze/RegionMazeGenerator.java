@@ -5,8 +5,7 @@
 
 package org.vorpal.maze;
 
-import java.util.Set;
-import java.awt.Point;
+import java.util.random.RandomGenerator;
 
 /**
  * A maze generator that carves a maze only over a given subset of cells
@@ -18,6 +17,7 @@ public interface RegionMazeGenerator {
      * Carves a maze over the given cells in the given Maze instance.
      * @param maze  the Maze under construction
      * @param cells the exact set of cells over which to carve the maze
+     * @param rnd   the source of all randomness used in carving
      */
-    void carve(Maze maze, Set<Point> cells);
+    void carve(Maze maze, CellSet cells, RandomGenerator rnd);
 }
@@ -0,0 +1,85 @@
+/**
+ * RegionStatistics.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A PartitionListener that accumulates the distribution of region sizes at each depth of a Voronoi subdivision.
+ * It is thread safe, so it can be passed to a parallel generator, and it may be shared across many generations to
+ * collect statistics over a batch.
+ */
+public final class RegionStatistics implements PartitionListener {
+    /**
+     * The number of buckets in a size histogram: bucket i counts the regions with between 2^i and 2^(i+1) - 1 cells.
+     */
+    public static final int BUCKETS = 32;
+
+    /**
+     * The region sizes at one depth.
+     * @param depth             the depth of the stages that were partitioned
+     * @param stages            the number of stages partitioned at this depth
+     * @param regions           the number of regions they were partitioned into
+     * @param minimumSize       the number of cells in the smallest region
+     * @param maximumSize       the number of cells in the largest region
+     * @param meanSize          the mean number of cells in a region
+     * @param standardDeviation the standard deviation of the number of cells in a region
+     * @param sizeHistogram     the log2 histogram of the region sizes, with BUCKETS buckets
+     */
+    public record Level(int depth, long stages, long regions, int minimumSize, int maximumSize,
+                        double meanSize, double standardDeviation, long[] sizeHistogram) {}
+
+    private static final class Accumulator {
+        long stages;
+        long regions;
+        int minimum = Integer.MAX_VALUE;
+        int maximum;
+        double sum;
+        double sumOfSquares;
+        final long[] histogram = new long[BUCKETS];
+    }
+
+    private final List<Accumulator> levels = new ArrayList<>();
+
+    @Override
+    public synchronized void partitioned(Stage stage, List<CellSet> regions) {
+        while (levels.size() <= stage.depth())
+            levels.add(new Accumulator());
+        final Accumulator level = levels.get(stage.depth());
+        ++level.stages;
+        for (final CellSet region : regions) {
+            final int size = region.size();
+            ++level.regions;
+            level.minimum = Math.min(level.minimum, size);
+            level.maximum = Math.max(level.maximum, size);
+            level.sum += size;
+            level.sumOfSquares += (double) size * size;
+            ++level.histogram[size == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(size)];
+        }
+    }
+
+    /**
+     * @return the statistics of each depth that has been partitioned so far, by increasing depth
+     */
+    public synchronized List<Level> levels() {
+        final List<Level> result = new ArrayList<>(levels.size());
+        for (int depth = 0; depth < levels.size(); ++depth) {
+            final Accumulator level = levels.get(depth);
+            if (level.regions == 0)
+                continue;
+            final double mean = level.sum / level.regions;
+            final double variance = Math.max(0, level.sumOfSquares / level.regions - mean * mean);
+            result.add(new Level(depth, level.stages, level.regions, level.minimum, level.maximum,
+                    mean, Math.sqrt(variance), level.histogram.clone()));
+        }
+        return List.copyOf(result);
+    }
+
+    public synchronized void clear() {
+        levels.clear();
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * SolverWorkspace.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.Arrays;
+
+/**
+ * A reusable BFS engine over the cells of a maze, identified by their ids row * columns + column.
+ * <p>
+ * The parent pointers, distances, and queue are int arrays that are kept across queries and only grown when a larger
+ * maze is solved, and cells are marked visited with a per-query stamp, so the arrays never need to be cleared.
+ * Apart from the returned path, queries allocate nothing. A workspace must not be shared between threads.
+ */
+public final class SolverWorkspace {
+    private static final int[] NO_PATH = new int[0];
+
+    private int[] mark = NO_PATH;
+    private int[] parent = NO_PATH;
+    private int[] distance = NO_PATH;
+    private int[] queue = NO_PATH;
+    private final int[] neighbours = new int[4];
+
+    // Forward searches stamp cells with epoch, and backward searches with epoch + 1.
+    private int epoch = 0;
+
+    /**
+     * Find the shortest path between two cells by BFS.
+     * @param maze  the maze
+     * @param start the id of the starting cell
+     * @param end   the id of the goal cell
+     * @return the ids of the cells from start (inclusive) to end (inclusive), or an empty array if there is no path
+     */
+    public int[] solve(Maze maze, int start, int end) {
+        return search(maze, start, end) ? path(end) : NO_PATH;
+    }
+
+    /**
+     * Find the length of the shortest path between two cells by BFS, without allocating.
+     * @return the number of steps from start to end, or -1 if there is no path
+     */
+    public int distance(Maze maze, int start, int end) {
+        return search(maze, start, end) ? distance[end] : -1;
+    }
+
+    /**
+     * Run a BFS over every cell reachable from a cell, e.g. to find the ends of the longest path in a perfect maze.
+     * The distances it finds remain available from {@link #lastDistance} until the next query.
+     * @return the id of a reachable cell at the greatest distance from start
+     */
+    public int farthest(Maze maze, int start) {
+        checkCell(start, prepare(maze));
+        return bfs(maze, start, -1);
+    }
+
+    /**
+     * @return the distance from the start of the most recent query to a cell, or -1 if that query did not reach it
+     */
+    public int lastDistance(int cell) {
+        return cell >= 0 && cell < mark.length && mark[cell] == epoch ? distance[cell] : -1;
+    }
+
+    /**
+     * @return the ids of the cells on the shortest path from the start of the most recent query to a cell, or an empty
+     *         array if that query did not reach it
+     */
+    public int[] lastPath(int cell) {
+        return lastDistance(cell) >= 0 ? path(cell) : NO_PATH;
+    }
+
+    /**
+     * Find the shortest path between two cells by a BFS from both ends, expanding the smaller frontier a level at a
+     * time, which visits far fewer cells than a one-sided search when the cells are close.
+     * @return the ids of the cells from start (inclusive) to end (inclusive), or an empty array if there is no path
+     */
+    public int[] solveBidirectional(Maze maze, int start, int end) {
+        final int n = prepare(maze);
+        checkCell(start, n);
+        checkCell(end, n);
+        if (start == end)
+            return new int[] { start };
+
+        final int forward = epoch;
+        final int backward = epoch + 1;
+        mark[start] = forward;
+        distance[start] = 0;
+        parent[start] = -1;
+        mark[end] = backward;
+        distance[end] = 0;
+        parent[end] = -1;
+
+        // Every cell is enqueued at most once, so the forward queue grows up from the start of the array and the
+        // backward queue grows down from its end.
+        queue[0] = start;
+        int forwardHead = 0;
+        int forwardTail = 1;
+        queue[n - 1] = end;
+        int backwardHead = n - 1;
+        int backwardTail = n - 2;
+
+        // The best meeting found, as the edge between a forward cell and a backward cell.
+        int best = -1;
+        int meetForward = -1;
+        int meetBackward = -1;
+
+        while (best < 0 && forwardHead < forwardTail && backwardHead > backwardTail) {
+            if (forwardTail - forwardHead <= backwardHead - backwardTail) {
+                final int levelEnd = forwardTail;
+                while (forwardHead < levelEnd) {
+                    final int cell = queue[forwardHead++];
+                    final int count = neighbours(maze, cell, neighbours);
+                    for (int i = 0; i < count; ++i) {
+                        final int next = neighbours[i];
+                        if (mark[next] == backward) {
+                            final int total = distance[cell] + 1 + distance[next];
+                            if (best < 0 || total < best) {
+                                best = total;
+                                meetForward = cell;
+                                meetBackward = next;
+                            }
+                        } else if (mark[next] != forward) {
+                            mark[next] = forward;
+                            distance[next] = distance[cell] + 1;
+                            parent[next] = cell;
+                            queue[forwardTail++] = next;
+                        }
+                    }
+                }
+            } else {
+                final int levelEnd = backwardTail;
+                while (backwardHead > levelEnd) {
+                    final int cell = queue[backwardHead--];
+                    final int count = neighbours(maze, cell, neighbours);
+                    for (int i = 0; i < count; ++i) {
+                        final int next = neighbours[i];
+                        if (mark[next] == forward) {
+                            final int total = distance[next] + 1 + distance[cell];
+                            if (best < 0 || total < best) {
+                                best = total;
+                                meetForward = next;
+                                meetBackward = cell;
+                            }
+                        } else if (mark[next] != backward) {
+                            mark[next] = backward;
+                            distance[next] = distance[cell] + 1;
+                            parent[next] = cell;
+                            queue[backwardTail--] = next;
+                        }
+                    }
+                }
+            }
+        }
+        if (best < 0)
+            return NO_PATH;
+
+        // The forward half runs back to start along the parents, and the backward half runs on to end.
+        final int[] path = new int[best + 1];
+        int i = distance[meetForward];
+        for (int cell = meetForward; cell != -1; cell = parent[cell])
+            path[i--] = cell;
+        i = distance[meetForward] + 1;
+        for (int cell = meetBackward; cell != -1; cell = parent[cell])
+            path[i++] = cell;
+        return path;
+    }
+
+    /**
+     * Run a BFS from start until end is reached.
+     * @return true if end was reached
+     */
+    private boolean search(Maze maze, int start, int end) {
+        final int n = prepare(maze);
+        checkCell(start, n);
+        checkCell(end, n);
+        return bfs(maze, start, end) == end;
+    }
+
+    /**
+     * Run a BFS from start until end is reached, or over all reachable cells if end is -1.
+     * @return end if it was reached, and the last cell visited otherwise
+     */
+    private int bfs(Maze maze, int start, int end) {
+        final int stamp = epoch;
+
+        mark[start] = stamp;
+        distance[start] = 0;
+        parent[start] = -1;
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail) {
+            final int cell = queue[head++];
+            if (cell == end)
+                return cell;
+            final int count = neighbours(maze, cell, neighbours);
+            for (int i = 0; i < count; ++i) {
+                final int next = neighbours[i];
+                if (mark[next] != stamp) {
+                    mark[next] = stamp;
+                    distance[next] = distance[cell] + 1;
+                    parent[next] = cell;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return queue[tail - 1];
+    }
+
+    private int[] path(int end) {
+        final int[] path = new int[distance[end] + 1];
+        int i = path.length - 1;
+        for (int cell = end; cell != -1; cell = parent[cell])
+            path[i--] = cell;
+        return path;
+    }
+
+    /**
+     * Size the arrays for the maze and start a new query.
+     * @return the number of cells in the maze
+     */
+    private int prepare(Maze maze) {
+        final long cells = (long) maze.getRows() * maze.getColumns();
+        if (cells > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze has too many cells for int cell ids.");
+        final int n = (int) cells;
+        if (mark.length < n) {
+            mark = new int[n];
+            parent = new int[n];
+            distance = new int[n];
+            queue = new int[n];
+            epoch = 0;
+        }
+
+        // Reset the stamps only when they wrap around.
+        if (epoch > Integer.MAX_VALUE - 4) {
+            Arrays.fill(mark, 0);
+            epoch = 0;
+        }
+        epoch += 2;
+        return n;
+    }
+
+    private static void checkCell(int cell, int n) {
+        if (cell < 0 || cell >= n)
+            throw new IllegalArgumentException("Cell is not in the maze: " + cell);
+    }
+
+    /**
+     * Collect the ids of the cells reachable from a cell in one step.
+     * @param neighbours an array of at least four elements to receive the ids
+     * @return the number of neighbours
+     */
+    static int neighbours(Maze maze, int cell, int[] neighbours) {
+        final int columns = maze.getColumns();
+        final int r = cell / columns;
+        final int c = cell - r * columns;
+        int count = 0;
+        if (!maze.hasWall(r, c, Maze.Direction.NORTH))
+            neighbours[count++] = cell - columns;
+        if (!maze.hasWall(r, c, Maze.Direction.EAST))
+            neighbours[count++] = cell + 1;
+        if (!maze.hasWall(r, c, Maze.Direction.SOUTH))
+            neighbours[count++] = cell + columns;
+        if (!maze.hasWall(r, c, Maze.Direction.WEST))
+            neighbours[count++] = cell - 1;
+        return count;
+    }
+}
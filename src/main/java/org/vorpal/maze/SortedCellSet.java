@@ -0,0 +1,94 @@
+/**
+ * SortedCellSet.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A CellSet backed by a strictly increasing array of cell ids.
+ * Membership is a binary search, and the bounding box is computed once on construction.
+ */
+final class SortedCellSet implements CellSet {
+    private final int gridRows;
+    private final int gridColumns;
+    private final int[] ids;
+    private final int minColumn;
+    private final int maxColumn;
+
+    SortedCellSet(int gridRows, int gridColumns, int[] ids) {
+        if ((long) gridRows * gridColumns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Grid has too many cells for int cell ids.");
+        this.gridRows = gridRows;
+        this.gridColumns = gridColumns;
+        this.ids = ids;
+
+        int minC = Integer.MAX_VALUE;
+        int maxC = -1;
+        for (final int id : ids) {
+            final int c = id % gridColumns;
+            minC = Math.min(minC, c);
+            maxC = Math.max(maxC, c);
+        }
+        this.minColumn = ids.length == 0 ? 0 : minC;
+        this.maxColumn = maxC;
+    }
+
+    @Override
+    public int gridRows() {
+        return gridRows;
+    }
+
+    @Override
+    public int gridColumns() {
+        return gridColumns;
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public int get(int index) {
+        return ids[index];
+    }
+
+    @Override
+    public int indexOf(int id) {
+        return Arrays.binarySearch(ids, id);
+    }
+
+    @Override
+    public int minRow() {
+        return ids.length == 0 ? 0 : ids[0] / gridColumns;
+    }
+
+    @Override
+    public int maxRow() {
+        return ids.length == 0 ? -1 : ids[ids.length - 1] / gridColumns;
+    }
+
+    @Override
+    public int minColumn() {
+        return minColumn;
+    }
+
+    @Override
+    public int maxColumn() {
+        return maxColumn;
+    }
+
+    @Override
+    public IntStream stream() {
+        return Arrays.stream(ids);
+    }
+
+    @Override
+    public int[] toArray() {
+        return ids.clone();
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * StreamingMazeGenerator.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+/**
+ * A MazeGenerator that produces a maze one row at a time, emitting each row as soon as it is finished, so that very
+ * tall mazes can be piped to disk or to a renderer without ever being held in memory.
+ */
+public interface StreamingMazeGenerator extends MazeGenerator {
+    /**
+     * Generate a maze, passing each row to the sink as it is completed.
+     * @param rows    the number of rows
+     * @param columns the number of columns
+     * @param seed    the master seed
+     * @param sink    the receiver of the rows
+     */
+    void generate(int rows, int columns, long seed, MazeRowSink sink);
+
+    @Override
+    default Maze generate(int rows, int columns, long seed) {
+        final Maze maze = new Maze(rows, columns);
+        generateInto(maze, seed);
+        return maze;
+    }
+
+    @Override
+    default void generateInto(Maze maze, long seed) {
+        generate(maze.getRows(), maze.getColumns(), seed, maze::setRow);
+    }
+}
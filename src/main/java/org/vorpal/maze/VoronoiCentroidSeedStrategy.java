@@ -5,15 +5,11 @@
 
 package org.vorpal.maze;
 
-import java.awt.Point;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
 
 public class VoronoiCentroidSeedStrategy implements VoronoiSeedStrategy {
     private final Function<Stage, Integer> countFunction;
@@ -31,47 +27,60 @@ public class VoronoiCentroidSeedStrategy implements VoronoiSeedStrategy {
     }
 
     @Override
-    public Optional<Set<Point>> seedsFor(Stage stage) {
+    public Optional<CellSet> seedsFor(Stage stage, RandomGenerator rnd) {
+        final CellSet cells = stage.cells();
         final int k = countFunction.apply(stage);
-        if (k < 2 || stage.cells().size() < k)
+        if (k < 2 || cells.size() < k)
             return Optional.empty();
 
-        // Compute bounding‐box to decide split-axis.
-        final int minR = stage.cells().stream().mapToInt(p -> p.x).min().getAsInt();
-        final int maxR = stage.cells().stream().mapToInt(p -> p.x).max().getAsInt();
-        final int minC = stage.cells().stream().mapToInt(p -> p.y).min().getAsInt();
-        final int maxC = stage.cells().stream().mapToInt(p -> p.y).max().getAsInt();
+        // Use the bounding‐box to decide split-axis.
+        final int minR = cells.minRow();
+        final int maxR = cells.maxRow();
+        final int minC = cells.minColumn();
+        final int maxC = cells.maxColumn();
 
         final boolean splitByRow = (maxR - minR) >= (maxC - minC);
 
-        // Sort cells along that axis
-        final List<Point> sorted = stage.cells().stream()
-                .sorted(splitByRow
-                        ? Comparator.comparingInt(p -> p.x)
-                        : Comparator.comparingInt(p -> p.y))
-                .toList();
+        // Sort cells along that axis: they are already in row order, and a counting sort puts them in column order.
+        final int n = cells.size();
+        final int[] sorted;
+        if (splitByRow)
+            sorted = cells.toArray();
+        else {
+            final int[] offsets = new int[maxC - minC + 2];
+            cells.forEach(id -> ++offsets[cells.column(id) - minC + 1]);
+            for (int i = 1; i < offsets.length; ++i)
+                offsets[i] += offsets[i - 1];
+            sorted = new int[n];
+            cells.forEach(id -> sorted[offsets[cells.column(id) - minC]++] = id);
+        }
 
-        final int n = sorted.size();
-        final Set<Point> seeds = new HashSet<>();
+        final int[] seeds = new int[k];
+        int count = 0;
 
         // Partition into k buckets and pick each bucket’s centroid
         for (int i = 0; i < k; i++) {
-            final int start = i * n / k;
-            final int end   = (i + 1) * n / k;
+            final int start = (int) ((long) i * n / k);
+            final int end   = (int) Math.min((long) (i + 1) * n / k, n);
             if (start >= n) break;
-            final List<Point> bucket = sorted.subList(start, Math.min(end, n));
 
             // Compute average coords.
-            final double avgR = bucket.stream().mapToInt(p -> p.x).average().orElse(minR);
-            final double avgC = bucket.stream().mapToInt(p -> p.y).average().orElse(minC);
-            Point ctr = new Point((int) Math.round(avgR), (int) Math.round(avgC));
+            long sumR = 0;
+            long sumC = 0;
+            for (int j = start; j < end; ++j) {
+                sumR += cells.row(sorted[j]);
+                sumC += cells.column(sorted[j]);
+            }
+            final int size = end - start;
+            final int ctr = cells.id((int) Math.round((double) sumR / size), (int) Math.round((double) sumC / size));
 
             // if that exact cell isn’t in the bucket, snap to the bucket’s median.
-            if (!bucket.contains(ctr))
-                ctr = bucket.get(bucket.size() / 2);
-            seeds.add(ctr);
+            boolean inBucket = false;
+            for (int j = start; j < end && !inBucket; ++j)
+                inBucket = sorted[j] == ctr;
+            seeds[count++] = inBucket ? ctr : sorted[start + size / 2];
         }
 
-        return Optional.of(Collections.unmodifiableSet(seeds));
+        return Optional.of(CellSet.of(cells.gridRows(), cells.gridColumns(), Arrays.copyOf(seeds, count)));
     }
 }
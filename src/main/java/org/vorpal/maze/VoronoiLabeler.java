@@ -0,0 +1,54 @@
+/**
+ * VoronoiLabeler.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import org.vorpal.math.ChebyshevMetric2D;
+import org.vorpal.math.EuclideanMetric2D;
+import org.vorpal.math.ManhattanMetric2D;
+import org.vorpal.math.Metric2D;
+
+/**
+ * Partitions the cells of a stage into Voronoi regions, one per seed.
+ * Every cell is labelled with the index (in the seed CellSet) of its nearest seed. Ties are always broken in favour
+ * of the seed with the lowest index, i.e. the lowest cell id, so that labelings are deterministic and all
+ * implementations for a given metric produce exactly the same labels.
+ */
+@FunctionalInterface
+public interface VoronoiLabeler {
+    /**
+     * Label the cells of a stage.
+     * @param cells  the cells of the stage
+     * @param seeds  the seeds, which are a subset of cells
+     * @param labels the output array, of length at least cells.size(): labels[i] is set to the index of the seed
+     *               owning the cell cells.get(i)
+     */
+    void label(CellSet cells, CellSet seeds, int[] labels);
+
+    /**
+     * Choose the fastest labeler for a metric: a linear-time distance transform for the Manhattan, Euclidean, and
+     * Chebyshev metrics, and a brute-force search for any other metric.
+     * @param metric the metric
+     * @return a VoronoiLabeler for the metric
+     */
+    static VoronoiLabeler forMetric(Metric2D metric) {
+        if (metric instanceof ManhattanMetric2D)
+            return new ManhattanVoronoiLabeler();
+        if (metric instanceof EuclideanMetric2D)
+            return new EuclideanVoronoiLabeler();
+        if (metric instanceof ChebyshevMetric2D)
+            return new ChebyshevVoronoiLabeler();
+        return new BruteForceVoronoiLabeler(metric);
+    }
+
+    /**
+     * Choose the labeler that grows the regions through the cells of the stage, rather than by distance under a
+     * metric, so that every region is connected.
+     * @return a GeodesicVoronoiLabeler with a round-robin frontier
+     */
+    static VoronoiLabeler geodesic() {
+        return new GeodesicVoronoiLabeler();
+    }
+}
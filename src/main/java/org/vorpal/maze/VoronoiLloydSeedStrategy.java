@@ -0,0 +1,297 @@
+/**
+ * VoronoiLloydSeedStrategy.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import org.vorpal.math.EuclideanMetric2D;
+import org.vorpal.math.NearestSeedKernel;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * A strategy that places seeds at the centroids of their own regions, by k-means++ seeding followed by Lloyd
+ * relaxation, so that the regions of a stage are of nearly equal size and parallel subdivision has balanced work.
+ * <p>
+ * Each iteration assigns every cell to its nearest seed under the Euclidean metric with a NearestSeedKernel, sums the
+ * cells of each region to find its centroid, and moves each seed to the member of its region nearest the centroid.
+ * The cells are split into stripes that are assigned and summed in parallel, and the partial sums are combined in
+ * stripe order, so the result does not depend on the scheduling. The relaxation stops when no seed moves.
+ * <p>
+ * Seeding and each iteration cost cells x seeds distance evaluations. The iterations of a stage are capped, and so
+ * is its total cost: a stage too large for k-means++ is seeded uniformly, and one too large to relax is left as
+ * seeded. The totals are reported by stats().
+ */
+final public class VoronoiLloydSeedStrategy implements VoronoiSeedStrategy {
+    public static final int DEFAULT_ITERATIONS = 8;
+    public static final long DEFAULT_MAXIMUM_COST = 1L << 28;
+
+    private static final int MINIMUM_STRIPE = 4096;
+    private static final EuclideanMetric2D EUCLIDEAN = new EuclideanMetric2D();
+
+    /**
+     * The totals over every stage seeded so far.
+     * @param stages     the number of stages seeded
+     * @param iterations the number of Lloyd iterations run
+     * @param cost       the number of distance evaluations
+     * @param converged  the number of stages whose seeds stopped moving
+     * @param capped     the number of stages cut short by the cap on the iterations or the cost
+     */
+    public record Stats(long stages, long iterations, long cost, long converged, long capped) {}
+
+    private final Function<Stage, Integer> countFunction;
+    private final int maximumIterations;
+    private final long maximumCost;
+
+    private final LongAdder stages = new LongAdder();
+    private final LongAdder iterations = new LongAdder();
+    private final LongAdder cost = new LongAdder();
+    private final LongAdder converged = new LongAdder();
+    private final LongAdder capped = new LongAdder();
+
+    public VoronoiLloydSeedStrategy(int fixedCount) {
+        this((IntFunction<Integer>) stage -> fixedCount);
+    }
+
+    public VoronoiLloydSeedStrategy(IntFunction<Integer> countFunction) {
+        this(stage -> countFunction.apply(stage.depth()), DEFAULT_ITERATIONS, DEFAULT_MAXIMUM_COST);
+    }
+
+    public VoronoiLloydSeedStrategy(Function<Stage, Integer> countFunction) {
+        this(countFunction, DEFAULT_ITERATIONS, DEFAULT_MAXIMUM_COST);
+    }
+
+    /**
+     * @param countFunction     the number of seeds for a stage
+     * @param maximumIterations the maximum number of Lloyd iterations per stage
+     * @param maximumCost       the maximum number of distance evaluations per stage
+     */
+    public VoronoiLloydSeedStrategy(Function<Stage, Integer> countFunction, int maximumIterations, long maximumCost) {
+        if (maximumIterations < 0 || maximumCost < 0)
+            throw new IllegalArgumentException("The caps must not be negative.");
+        this.countFunction = countFunction;
+        this.maximumIterations = maximumIterations;
+        this.maximumCost = maximumCost;
+    }
+
+    public Stats stats() {
+        return new Stats(stages.sum(), iterations.sum(), cost.sum(), converged.sum(), capped.sum());
+    }
+
+    @Override
+    public Optional<CellSet> seedsFor(Stage stage, RandomGenerator rnd) {
+        final CellSet cells = stage.cells();
+        final int k = countFunction.apply(stage);
+        if (k < 2 || cells.size() < k)
+            return Optional.empty();
+
+        final int n = cells.size();
+        final int[] rows = new int[n];
+        final int[] columns = new int[n];
+        for (int i = 0; i < n; ++i) {
+            final int id = cells.get(i);
+            rows[i] = cells.row(id);
+            columns[i] = cells.column(id);
+        }
+        final int stripes = (int) Math.min((n + MINIMUM_STRIPE - 1) / MINIMUM_STRIPE,
+                4L * ForkJoinPool.getCommonPoolParallelism());
+        final long perPass = (long) n * k;
+
+        // Seed by k-means++ if it is affordable, and uniformly otherwise.
+        final int[] seedRows = new int[k];
+        final int[] seedColumns = new int[k];
+        long spent = 0;
+        if (perPass <= maximumCost) {
+            kMeansPlusPlus(rows, columns, k, stripes, rnd, seedRows, seedColumns);
+            spent += perPass;
+        } else {
+            final CellSet uniform = new VoronoiRandomSeedStrategy(k).seedsFor(stage, rnd).orElseThrow();
+            for (int j = 0; j < k; ++j) {
+                seedRows[j] = cells.row(uniform.get(j));
+                seedColumns[j] = cells.column(uniform.get(j));
+            }
+        }
+
+        // Relax.
+        final int[] labels = new int[n];
+        int iteration = 0;
+        boolean moved = true;
+        while (moved && iteration < maximumIterations && spent + perPass <= maximumCost) {
+            moved = relax(rows, columns, k, stripes, labels, seedRows, seedColumns);
+            spent += perPass;
+            ++iteration;
+        }
+
+        stages.increment();
+        iterations.add(iteration);
+        cost.add(spent);
+        if (moved)
+            capped.increment();
+        else
+            converged.increment();
+
+        // Seeds that snapped to the same cell merge.
+        final int[] seeds = new int[k];
+        for (int j = 0; j < k; ++j)
+            seeds[j] = cells.id(seedRows[j], seedColumns[j]);
+        final CellSet result = CellSet.of(cells.gridRows(), cells.gridColumns(), seeds);
+        return result.size() < 2 ? Optional.empty() : Optional.of(result);
+    }
+
+    /**
+     * Choose k seeds among the cells by k-means++: each seed after the first is a cell chosen with probability
+     * proportional to its squared distance from the nearest seed so far.
+     */
+    private static void kMeansPlusPlus(int[] rows, int[] columns, int k, int stripes, RandomGenerator rnd,
+                                       int[] seedRows, int[] seedColumns) {
+        final int n = rows.length;
+        final long[] nearest = new long[n];
+        Arrays.fill(nearest, Long.MAX_VALUE);
+        final long[] stripeSums = new long[stripes];
+
+        int chosen = rnd.nextInt(n);
+        for (int j = 0; j < k; ++j) {
+            final int r = rows[chosen];
+            final int c = columns[chosen];
+            seedRows[j] = r;
+            seedColumns[j] = c;
+            if (j == k - 1)
+                break;
+
+            // Update the distances to the nearest seed, and their sums by stripe.
+            IntStream.range(0, stripes).parallel().forEach(s -> {
+                final int to = stripeStart(s + 1, stripes, n);
+                long sum = 0;
+                for (int i = stripeStart(s, stripes, n); i < to; ++i) {
+                    final long dr = rows[i] - r;
+                    final long dc = columns[i] - c;
+                    nearest[i] = Math.min(nearest[i], dr * dr + dc * dc);
+                    sum += nearest[i];
+                }
+                stripeSums[s] = sum;
+            });
+
+            long total = 0;
+            for (final long sum : stripeSums)
+                total += sum;
+            if (total == 0) {
+                // Every cell is already a seed, which can only happen with duplicate cells: repeat the last seed.
+                for (int rest = j + 1; rest < k; ++rest) {
+                    seedRows[rest] = r;
+                    seedColumns[rest] = c;
+                }
+                return;
+            }
+
+            // Find the cell at a uniformly random point of the cumulative distances, first by stripe.
+            long target = rnd.nextLong(total);
+            int s = 0;
+            while (target >= stripeSums[s])
+                target -= stripeSums[s++];
+            int i = stripeStart(s, stripes, n);
+            while (target >= nearest[i])
+                target -= nearest[i++];
+            chosen = i;
+        }
+    }
+
+    /**
+     * Run a Lloyd iteration, moving each seed to the member of its region nearest the region's centroid.
+     * Regions that receive no cells keep their seeds.
+     * @return true if any seed moved
+     */
+    private static boolean relax(int[] rows, int[] columns, int k, int stripes, int[] labels,
+                                 int[] seedRows, int[] seedColumns) {
+        final int n = rows.length;
+        final NearestSeedKernel kernel = new NearestSeedKernel(EUCLIDEAN, seedRows, seedColumns);
+
+        // Assign the cells and sum the regions by stripe.
+        final long[][] rowSums = new long[stripes][];
+        final long[][] columnSums = new long[stripes][];
+        final int[][] counts = new int[stripes][];
+        IntStream.range(0, stripes).parallel().forEach(s -> {
+            final int from = stripeStart(s, stripes, n);
+            final int to = stripeStart(s + 1, stripes, n);
+            kernel.nearest(rows, columns, from, to - from, labels, from);
+            final long[] rowSum = new long[k];
+            final long[] columnSum = new long[k];
+            final int[] count = new int[k];
+            for (int i = from; i < to; ++i) {
+                rowSum[labels[i]] += rows[i];
+                columnSum[labels[i]] += columns[i];
+                ++count[labels[i]];
+            }
+            rowSums[s] = rowSum;
+            columnSums[s] = columnSum;
+            counts[s] = count;
+        });
+
+        final double[] centroidRows = new double[k];
+        final double[] centroidColumns = new double[k];
+        final int[] sizes = new int[k];
+        for (int j = 0; j < k; ++j) {
+            long rowSum = 0;
+            long columnSum = 0;
+            for (int s = 0; s < stripes; ++s) {
+                rowSum += rowSums[s][j];
+                columnSum += columnSums[s][j];
+                sizes[j] += counts[s][j];
+            }
+            centroidRows[j] = sizes[j] == 0 ? 0 : (double) rowSum / sizes[j];
+            centroidColumns[j] = sizes[j] == 0 ? 0 : (double) columnSum / sizes[j];
+        }
+
+        // Snap each centroid to the nearest member of its region, preferring the lowest index on ties.
+        final double[][] bestDistances = new double[stripes][];
+        final int[][] bestCells = new int[stripes][];
+        IntStream.range(0, stripes).parallel().forEach(s -> {
+            final double[] bestDistance = new double[k];
+            final int[] bestCell = new int[k];
+            Arrays.fill(bestDistance, Double.POSITIVE_INFINITY);
+            final int to = stripeStart(s + 1, stripes, n);
+            for (int i = stripeStart(s, stripes, n); i < to; ++i) {
+                final int j = labels[i];
+                final double dr = rows[i] - centroidRows[j];
+                final double dc = columns[i] - centroidColumns[j];
+                final double distance = dr * dr + dc * dc;
+                if (distance < bestDistance[j]) {
+                    bestDistance[j] = distance;
+                    bestCell[j] = i;
+                }
+            }
+            bestDistances[s] = bestDistance;
+            bestCells[s] = bestCell;
+        });
+
+        boolean moved = false;
+        for (int j = 0; j < k; ++j) {
+            if (sizes[j] == 0)
+                continue;
+            double best = Double.POSITIVE_INFINITY;
+            int cell = -1;
+            for (int s = 0; s < stripes; ++s)
+                if (bestDistances[s][j] < best) {
+                    best = bestDistances[s][j];
+                    cell = bestCells[s][j];
+                }
+            if (rows[cell] != seedRows[j] || columns[cell] != seedColumns[j]) {
+                seedRows[j] = rows[cell];
+                seedColumns[j] = columns[cell];
+                moved = true;
+            }
+        }
+        return moved;
+    }
+
+    private static int stripeStart(int stripe, int stripes, int n) {
+        return (int) ((long) stripe * n / stripes);
+    }
+}
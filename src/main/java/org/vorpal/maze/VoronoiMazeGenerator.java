@@ -7,171 +7,269 @@ package org.vorpal.maze;
 
 import org.vorpal.math.Metric2D;
 
-import java.awt.*;
 import java.util.*;
 import java.util.List;
-import java.util.function.BiConsumer;
-import java.util.function.Function;
-import java.util.stream.IntStream;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
 
+/**
+ * Generates a maze by recursively partitioning the grid into Voronoi regions, joining the regions of each stage by
+ * a random spanning tree of doors, and finishing the smallest regions with a fallback generator.
+ * <p>
+ * All randomness comes from a SplittableRandom seeded with the master seed: each stage's generator is split off its
+ * parent's in a fixed order, so a seed always produces the same maze, whether or not the subdivision of the
+ * regions runs in parallel.
+ * <p>
+ * When the seed strategy stops, the region is carved by the fallback RegionMazeGenerator. In parallel mode, it is
+ * called concurrently on disjoint regions.
+ */
 public class VoronoiMazeGenerator implements MazeGenerator {
+    /**
+     * The parallel cutoff that keeps all subdivision on the calling thread.
+     */
+    public static final int SEQUENTIAL = Integer.MAX_VALUE;
+
     private final VoronoiSeedStrategy seedSupplier;
-    private final Metric2D metric;
+    private final VoronoiLabeler labeler;
     private final RegionMazeGenerator fallbackGenerator;
-    private final Random rnd = new Random();
+    private final int parallelCutoff;
 
+    /**
+     * Create a generator whose regions are formed by distance under the given metric, using a distance transform
+     * for the built-in metrics.
+     */
     public VoronoiMazeGenerator(VoronoiSeedStrategy seedSupplier,
                                 Metric2D metric,
                                 RegionMazeGenerator fallbackGenerator) {
+        this(seedSupplier, VoronoiLabeler.forMetric(metric), fallbackGenerator, SEQUENTIAL);
+    }
+
+    /**
+     * Create a generator whose regions are formed by distance under the given metric, and which subdivides regions
+     * in parallel.
+     * @param parallelCutoff regions with at least this many cells are subdivided as fork/join tasks, while smaller
+     *                       regions stay on the calling thread
+     */
+    public VoronoiMazeGenerator(VoronoiSeedStrategy seedSupplier,
+                                Metric2D metric,
+                                RegionMazeGenerator fallbackGenerator,
+                                int parallelCutoff) {
+        this(seedSupplier, VoronoiLabeler.forMetric(metric), fallbackGenerator, parallelCutoff);
+    }
+
+    /**
+     * Create a generator whose regions are formed by the given labeler.
+     */
+    public VoronoiMazeGenerator(VoronoiSeedStrategy seedSupplier,
+                                VoronoiLabeler labeler,
+                                RegionMazeGenerator fallbackGenerator) {
+        this(seedSupplier, labeler, fallbackGenerator, SEQUENTIAL);
+    }
+
+    /**
+     * Create a generator whose regions are formed by the given labeler, and which subdivides regions in parallel.
+     * @param parallelCutoff regions with at least this many cells are subdivided as fork/join tasks, while smaller
+     *                       regions stay on the calling thread
+     */
+    public VoronoiMazeGenerator(VoronoiSeedStrategy seedSupplier,
+                                VoronoiLabeler labeler,
+                                RegionMazeGenerator fallbackGenerator,
+                                int parallelCutoff) {
+        if (parallelCutoff < 1)
+            throw new IllegalArgumentException("The parallel cutoff must be positive.");
         this.seedSupplier = seedSupplier;
-        this.metric = metric;
-        this.fallbackGenerator = fallbackGenerator;
+        this.labeler = labeler;
+        this.fallbackGenerator = Objects.requireNonNull(fallbackGenerator);
+        this.parallelCutoff = parallelCutoff;
     }
 
+    /**
+     * Generate a maze. In parallel mode, the tasks run in the ForkJoinPool of the calling thread if it is a worker,
+     * and in the common pool otherwise.
+     */
     @Override
-    public Maze generate(int rows, int columns) {
+    public Maze generate(int rows, int columns, long seed) {
         final Maze maze = new Maze(rows, columns);
-        final Set<Point> allCells = new HashSet<>();
-        IntStream.range(0, rows).forEach(r ->
-                IntStream.range(0, columns).forEach(c ->
-                        allCells.add(new Point(r, c))
-                )
-        );
-        subdivide(maze, new Stage(0, allCells));
+        generateInto(maze, seed);
         return maze;
     }
 
-    private void subdivide(Maze maze, Stage stage) {
-        final Optional<Set<Point>> maybeSeeds = seedSupplier.seedsFor(stage);
+    @Override
+    public void generateInto(Maze maze, long seed) {
+        generateInto(maze, seed, (GenerationListener) null);
+    }
 
-        if (maybeSeeds.isEmpty()) {
-            fallbackFinish(maze, stage.cells());
-            return;
+    /**
+     * Generate a maze into an existing, fully walled maze, reporting the partition of every stage.
+     * @param listener the listener for the partitions, or null
+     */
+    public void generateInto(Maze maze, long seed, PartitionListener listener) {
+        generateInto(maze, seed, listener == null ? null : GenerationListener.of(listener));
+    }
+
+    /**
+     * Generate a maze into an existing, fully walled maze, reporting the phases and partition of every stage.
+     * Whether or not there is a listener, the generation and its stages are recorded as JFR events when those are
+     * enabled.
+     * @param listener the listener, or null
+     */
+    @Override
+    public void generateInto(Maze maze, long seed, GenerationListener listener) {
+        final GenerationEvents.Generation event = new GenerationEvents.Generation();
+        final boolean timed = listener != null || event.isEnabled();
+        final long start = timed ? System.nanoTime() : 0;
+        event.begin();
+        subdivide(maze, new Stage(0, CellSet.full(maze.getRows(), maze.getColumns())), new SplittableRandom(seed),
+                listener);
+        if (listener != null)
+            listener.generated(this, maze, seed, System.nanoTime() - start);
+        event.commit(this, maze, seed);
+    }
+
+    /**
+     * The subdivision of a single region as a fork/join task.
+     */
+    @SuppressWarnings("serial")
+    private final class Subdivision extends RecursiveAction {
+        private final Maze maze;
+        private final Stage stage;
+        private final SplittableRandom rnd;
+        private final GenerationListener listener;
+
+        Subdivision(Maze maze, Stage stage, SplittableRandom rnd, GenerationListener listener) {
+            this.maze = maze;
+            this.stage = stage;
+            this.rnd = rnd;
+            this.listener = listener;
         }
 
-        // Assign every cell to its nearest seed.
-        final Set<Point> seeds = maybeSeeds.get();
-        final Map<Point, Set<Point>> regions = new HashMap<>();
-        seeds.forEach(seed -> regions.put(seed, new HashSet<>()));
-        stage.cells().forEach(cell -> {
-            final Point nearestSeed = seeds.stream()
-                    .min(Comparator.comparingInt(seed -> metric.distance(seed, cell)))
-                    .orElseThrow();
-            regions.get(nearestSeed).add(cell);
-        });
-
-        // Build the adjacencies: for each cell, look east and south.
-        // They are neighbours whenever they belong to different seeds.
-        // We record that border.
-        record RegionEdge(Point seed1, Point seed2, Point cell, Maze.Direction dir) {
+        @Override
+        protected void compute() {
+            subdivide(maze, stage, rnd, listener);
         }
-        final Map<Set<Point>, RegionEdge> edgeMap = new HashMap<>();
-
-        for (final Point cell : stage.cells()) {
-            // Helper to handle one neighbour direction.
-            BiConsumer<Maze.Direction, Point> checkNeighbour = (dir, nbr) -> {
-                if (stage.cells().contains(nbr)) {
-                    final Point s1 = findRegionSeed(regions, cell);
-                    final Point s2 = findRegionSeed(regions, nbr);
-                    if (!s1.equals(s2)) {
-                        final Set<Point> key = Set.of(s1, s2);
-                        edgeMap.putIfAbsent(key, new RegionEdge(s1, s2, cell, dir));
-                    }
-                }
-            };
-
-            final int r = cell.x;
-            final int c = cell.y;
-
-            // Handle the east neighbour.
-            checkNeighbour.accept(Maze.Direction.EAST, new Point(r, c + 1));
-            // Handle the south neighbour.
-            checkNeighbour.accept(Maze.Direction.SOUTH, new Point(r + 1, c));
+    }
+
+    /**
+     * Subdivide a stage recursively until the seed strategy stops, and carve its regions.
+     * @param listener the listener, or null
+     */
+    void subdivide(Maze maze, Stage stage, SplittableRandom rnd, GenerationListener listener) {
+        final PhaseTimer timer = new PhaseTimer(listener, stage);
+        final Optional<CellSet> maybeSeeds = seedSupplier.seedsFor(stage, rnd);
+        timer.lap(GenerationListener.Phase.SEEDS);
+
+        if (maybeSeeds.isEmpty()) {
+            fallbackGenerator.carve(maze, stage.cells(), rnd);
+            timer.lap(GenerationListener.Phase.FALLBACK);
+            timer.commit(0);
+            return;
         }
 
-        // Pick a random spanning tree over the seeds.
-        final List<RegionEdge> allEdges = new ArrayList<>(edgeMap.values());
-        Collections.shuffle(allEdges, rnd);
-
-        // Execute a simple union-find over the seeds.
-        final Map<Point, Point> parentMap = new HashMap<>();
-        seeds.forEach(seed -> parentMap.put(seed, seed));
-        final Function<Point, Point> find = new Function<>() {
-            public Point apply(Point x) {
-                if (parentMap.get(x) != x)
-                    parentMap.put(x, apply(parentMap.get(x)));
-                return parentMap.get(x);
-            }
-        };
+        // Assign every cell to its nearest seed: region i belongs to the seed at index i.
+        final CellSet cells = stage.cells();
+        final CellSet seeds = maybeSeeds.get();
+        final int k = seeds.size();
+        final int n = cells.size();
+        final int[] labels = new int[n];
+        labeler.label(cells, seeds, labels);
+        timer.lap(GenerationListener.Phase.LABEL);
 
-        final BiConsumer<Point, Point> union = (p1, p2) ->
-                parentMap.put(find.apply(p1), find.apply(p2));
+        final List<CellSet> regions = splitRegions(cells, labels, k);
+        timer.lap(GenerationListener.Phase.SPLIT);
+        if (listener != null)
+            listener.partitioned(stage, Collections.unmodifiableList(regions));
 
-        // A spanning tree across all regions requires carving (# of regions - 1) holes.
-        int needed = seeds.size() - 1;
-        for (final RegionEdge edge : allEdges) {
-            final Point r1 = find.apply(edge.seed1);
-            final Point r2 = find.apply(edge.seed2);
-            if (!r1.equals(r2)) {
-                // Carve exactly that shared wall.
-                maze.carveWall(edge.cell, edge.dir);
-                union.accept(edge.seed1, edge.seed2);
-                if (--needed == 0) break;
-            }
+        // Build the adjacencies between the regions in one pass, with a uniformly random door on each border.
+        final RegionAdjacency adjacency = RegionAdjacency.build(cells, labels, rnd);
+        timer.lap(GenerationListener.Phase.ADJACENCY);
+        joinRegions(maze, adjacency, k, rnd);
+        timer.lap(GenerationListener.Phase.JOIN);
+        timer.commit(k);
+
+        // Recurse on each region. The regions only touch their own interior walls, so they can be processed
+        // concurrently: the generators are split off in region order before any region runs, so the result does
+        // not depend on the scheduling.
+        final Deque<Subdivision> forked = new ArrayDeque<>();
+        for (final CellSet region : regions) {
+            final Stage child = new Stage(stage.depth() + 1, region);
+            final SplittableRandom childRnd = rnd.split();
+            if (region.size() >= parallelCutoff) {
+                final Subdivision task = new Subdivision(maze, child, childRnd, listener);
+                task.fork();
+                forked.push(task);
+            } else
+                subdivide(maze, child, childRnd, listener);
         }
+        while (!forked.isEmpty())
+            forked.pop().join();
+    }
 
-        // Recurse on each region.
-        for (final Set<Point> region : regions.values())
-            subdivide(maze, new Stage(stage.depth() + 1, region));
+    /**
+     * Split the cells into the regions given by their labels. The regions remain in increasing id order.
+     * @param cells  the cells
+     * @param labels the region of each cell, by index
+     * @param k      the number of regions
+     * @return the regions, by label
+     */
+    static List<CellSet> splitRegions(CellSet cells, int[] labels, int k) {
+        final int n = cells.size();
+        final int[] regionSizes = new int[k];
+        for (final int label : labels)
+            ++regionSizes[label];
+
+        final int[][] regionIds = new int[k][];
+        for (int j = 0; j < k; ++j)
+            regionIds[j] = new int[regionSizes[j]];
+        final int[] fill = new int[k];
+        for (int i = 0; i < n; ++i)
+            regionIds[labels[i]][fill[labels[i]]++] = cells.get(i);
+        final List<CellSet> regions = new ArrayList<>(k);
+        for (int j = 0; j < k; ++j)
+            regions.add(CellSet.ofSorted(cells.gridRows(), cells.gridColumns(), regionIds[j]));
+        return regions;
     }
 
-    private void fallbackFinish(Maze maze, Set<Point> region) {
-        // A simple DFS backtracker over an arbitrary cell‐set
-        Random rnd = new Random();
-        Set<Point> unvisited = new HashSet<>(region);
-        Deque<Point> stack = new ArrayDeque<>();
-
-        // Seed the walk at any cell in the region
-        Point start = unvisited.iterator().next();
-        stack.push(start);
-        unvisited.remove(start);
-
-        while (!stack.isEmpty()) {
-            final Point cell = stack.peek();
-
-            // find all unvisited neighbors *within* this region
-            final List<Maze.Direction> nbrs = new ArrayList<>();
-            if (unvisited.contains(new Point(cell.x - 1, cell.y))) nbrs.add(Maze.Direction.NORTH);
-            if (unvisited.contains(new Point(cell.x, cell.y + 1))) nbrs.add(Maze.Direction.EAST);
-            if (unvisited.contains(new Point(cell.x + 1, cell.y))) nbrs.add(Maze.Direction.SOUTH);
-            if (unvisited.contains(new Point(cell.x, cell.y - 1))) nbrs.add(Maze.Direction.WEST);
-
-            if (!nbrs.isEmpty()) {
-                // carve to a random neighbor
-                final Maze.Direction dir = nbrs.get(rnd.nextInt(nbrs.size()));
-                final Point next = Maze.neighbour(cell, dir);
-                maze.carveWall(cell, dir);
-                stack.push(next);
-                unvisited.remove(next);
-            } else {
-                // dead end, backtrack
-                stack.pop();
+    /**
+     * Join k regions by carving the doors of a random spanning tree of their adjacencies.
+     */
+    static void joinRegions(Maze maze, RegionAdjacency adjacency, int k, RandomGenerator rnd) {
+        // Pick a random spanning tree over the regions by visiting the borders in a random order.
+        final int edgeCount = adjacency.edgeCount();
+        final int[] order = new int[edgeCount];
+        for (int e = 0; e < edgeCount; ++e) {
+            final int j = rnd.nextInt(e + 1);
+            order[e] = order[j];
+            order[j] = e;
+        }
+
+        // Execute a simple union-find over the regions.
+        final int[] parent = new int[k];
+        for (int j = 0; j < k; ++j)
+            parent[j] = j;
+
+        // A spanning tree across all regions requires carving (# of regions - 1) holes.
+        int needed = k - 1;
+        for (final int e : order) {
+            if (needed == 0) break;
+            final int r1 = find(parent, adjacency.region1(e));
+            final int r2 = find(parent, adjacency.region2(e));
+            if (r1 != r2) {
+                // Carve exactly that shared wall.
+                maze.carveWall(adjacency.doorRow(e), adjacency.doorColumn(e), adjacency.doorDirection(e));
+                parent[r1] = r2;
+                --needed;
             }
         }
     }
 
-//    private void fallbackFinish(Maze maze, Set<Point> cells) {
-//        fallbackGenerator.carve(maze, cells);
-//    }
-
     /**
-     * Helper function to determine which seed "owns" a cell in the regions map.
+     * Find the representative of a region in the union-find forest, halving the path along the way.
      */
-    private Point findRegionSeed(Map<Point, Set<Point>> regions, Point cell) {
-        return regions.entrySet().stream()
-                .filter(entry -> entry.getValue().contains(cell))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElseThrow();
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
     }
 }
@@ -0,0 +1,154 @@
+/**
+ * VoronoiPoissonDiskSeedStrategy.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * A strategy that places blue-noise seeds by Bridson's Poisson-disk sampling: no two seeds are closer than the
+ * spacing, and the stage is filled until no more seeds fit. Evenly spaced seeds give regions of similar size, which
+ * keeps the recursion shallow and predictable.
+ * <p>
+ * Starting from a random cell, each step takes a random active seed and tries up to ATTEMPTS random cells in the
+ * annulus between one and two spacings from it, retiring the seed if none fits. A background grid with buckets
+ * of side spacing / sqrt(2), holding at most one seed each, limits the test of a candidate to the seeds in the
+ * buckets around it, so the sampling takes time proportional to the cells of the stage.
+ * If the spacing function returns 0 or negative, or fewer than two seeds fit, Optional.empty() is returned.
+ */
+final public class VoronoiPoissonDiskSeedStrategy implements VoronoiSeedStrategy {
+    /**
+     * The number of candidates tried around an active seed before it is retired.
+     */
+    public static final int ATTEMPTS = 30;
+
+    private final Function<Stage, Double> spacingFunction;
+
+    public VoronoiPoissonDiskSeedStrategy(double fixedSpacing) {
+        this((IntFunction<Double>) depth -> fixedSpacing);
+    }
+
+    public VoronoiPoissonDiskSeedStrategy(IntFunction<Double> spacingFunction) {
+        this.spacingFunction = stage -> spacingFunction.apply(stage.depth());
+    }
+
+    public VoronoiPoissonDiskSeedStrategy(Function<Stage, Double> spacingFunction) {
+        this.spacingFunction = spacingFunction;
+    }
+
+    /**
+     * Create a strategy whose spacing gives each stage roughly the given number of seeds.
+     * A maximal Poisson-disk sample with spacing r has about one seed per 1.5 r^2 cells.
+     * @param countFunction the approximate number of seeds for a stage
+     */
+    public static VoronoiPoissonDiskSeedStrategy ofCount(Function<Stage, Integer> countFunction) {
+        return new VoronoiPoissonDiskSeedStrategy((Stage stage) -> {
+            final int k = countFunction.apply(stage);
+            return k < 2 ? 0.0 : Math.sqrt(stage.cells().size() / (1.5 * k));
+        });
+    }
+
+    @Override
+    public Optional<CellSet> seedsFor(Stage stage, RandomGenerator rnd) {
+        final CellSet cells = stage.cells();
+        final double requested = spacingFunction.apply(stage);
+        if (!(requested > 0) || cells.size() < 2)
+            return Optional.empty();
+
+        // Distinct cells are always at least one apart, so a smaller spacing would only enlarge the grid.
+        final double spacing = Math.max(1, requested);
+
+        // A bitmap of the stage over its bounding box, for constant-time membership tests.
+        final int minRow = cells.minRow();
+        final int minColumn = cells.minColumn();
+        final int height = cells.maxRow() - minRow + 1;
+        final int width = cells.maxColumn() - minColumn + 1;
+        final long[] inStage = new long[(int) (((long) height * width + 63) >>> 6)];
+        cells.forEach(id -> {
+            final int bit = (cells.row(id) - minRow) * width + cells.column(id) - minColumn;
+            inStage[bit >>> 6] |= 1L << bit;
+        });
+
+        // The background grid holds the index of the seed in each bucket, or -1.
+        final double bucketSize = spacing / Math.sqrt(2);
+        final int gridRows = (int) (height / bucketSize) + 1;
+        final int gridColumns = (int) (width / bucketSize) + 1;
+        final int[] grid = new int[gridRows * gridColumns];
+        Arrays.fill(grid, -1);
+
+        final int capacity = Math.min(cells.size(), gridRows * gridColumns);
+        final int[] seedRows = new int[capacity];
+        final int[] seedColumns = new int[capacity];
+        final int[] active = new int[capacity];
+        final double minimumSquared = spacing * spacing;
+
+        final int first = cells.get(rnd.nextInt(cells.size()));
+        int count = 0;
+        seedRows[0] = cells.row(first) - minRow;
+        seedColumns[0] = cells.column(first) - minColumn;
+        grid[(int) (seedRows[0] / bucketSize) * gridColumns + (int) (seedColumns[0] / bucketSize)] = count;
+        active[0] = count++;
+        int activeCount = 1;
+
+        while (activeCount > 0) {
+            final int a = rnd.nextInt(activeCount);
+            final int seed = active[a];
+            boolean placed = false;
+            for (int attempt = 0; attempt < ATTEMPTS && !placed; ++attempt) {
+                final double angle = rnd.nextDouble(2 * Math.PI);
+                final double radius = rnd.nextDouble(spacing, 2 * spacing);
+                final int r = (int) Math.round(seedRows[seed] + radius * Math.sin(angle));
+                final int c = (int) Math.round(seedColumns[seed] + radius * Math.cos(angle));
+                if (r < 0 || r >= height || c < 0 || c >= width)
+                    continue;
+                final int bit = r * width + c;
+                if ((inStage[bit >>> 6] & (1L << bit)) == 0)
+                    continue;
+                final int bucketRow = (int) (r / bucketSize);
+                final int bucketColumn = (int) (c / bucketSize);
+                if (!isFarEnough(grid, gridRows, gridColumns, bucketRow, bucketColumn, seedRows, seedColumns,
+                        r, c, minimumSquared))
+                    continue;
+                seedRows[count] = r;
+                seedColumns[count] = c;
+                grid[bucketRow * gridColumns + bucketColumn] = count;
+                active[activeCount++] = count++;
+                placed = true;
+            }
+            if (!placed)
+                active[a] = active[--activeCount];
+        }
+
+        if (count < 2)
+            return Optional.empty();
+        final int[] seeds = new int[count];
+        for (int i = 0; i < count; ++i)
+            seeds[i] = cells.id(seedRows[i] + minRow, seedColumns[i] + minColumn);
+        return Optional.of(CellSet.of(cells.gridRows(), cells.gridColumns(), seeds));
+    }
+
+    /**
+     * Check a candidate against the seeds in the buckets within two of its own, which covers every seed that could
+     * be closer than the spacing.
+     */
+    private static boolean isFarEnough(int[] grid, int gridRows, int gridColumns, int bucketRow, int bucketColumn,
+                                       int[] seedRows, int[] seedColumns, int r, int c, double minimumSquared) {
+        for (int br = Math.max(0, bucketRow - 2); br <= Math.min(gridRows - 1, bucketRow + 2); ++br)
+            for (int bc = Math.max(0, bucketColumn - 2); bc <= Math.min(gridColumns - 1, bucketColumn + 2); ++bc) {
+                final int other = grid[br * gridColumns + bc];
+                if (other < 0)
+                    continue;
+                final long dr = r - seedRows[other];
+                final long dc = c - seedColumns[other];
+                if (dr * dr + dc * dc < minimumSquared)
+                    return false;
+            }
+        return true;
+    }
+}
@@ -5,18 +5,20 @@
 
 package org.vorpal.maze;
 
-import java.awt.Point;
-import java.util.*;
+import java.util.Arrays;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
 
 /**
  * A strategy for generating seeds for a given Stage of a Voronoi maze generation algorithm.
  * If the count function returns 0 or negative, Optional.empty() is returned.
+ * The k seeds are chosen uniformly by Floyd's algorithm over the indices of the stage's cells, which takes O(k) time
+ * and space and never copies the stage.
  */
 final public class VoronoiRandomSeedStrategy implements VoronoiSeedStrategy {
     private final Function<Stage, Integer> countFunction;
-    private final Random rnd;
 
     public VoronoiRandomSeedStrategy(int fixedCount) {
         this((IntFunction<Integer>) stage -> fixedCount);
@@ -24,28 +26,50 @@ final public class VoronoiRandomSeedStrategy implements VoronoiSeedStrategy {
 
     public VoronoiRandomSeedStrategy(IntFunction<Integer> countFunction) {
         this.countFunction = stage -> countFunction.apply(stage.depth());
-        this.rnd = new Random();
     }
 
     public VoronoiRandomSeedStrategy(Function<Stage, Integer> countFunction) {
         this.countFunction = countFunction;
-        this.rnd = new Random();
     }
 
     @Override
-    public Optional<Set<Point>> seedsFor(Stage stage) {
+    public Optional<CellSet> seedsFor(Stage stage, RandomGenerator rnd) {
+        final CellSet cells = stage.cells();
         final int k = countFunction.apply(stage);
-        if (k < 2 || stage.cells().size() < k)
+        if (k < 2 || cells.size() < k)
             return Optional.empty();
 
-        final List<Point> available = new ArrayList<>(stage.cells());
-        final Set<Point> seeds = new HashSet<>();
+        // Floyd's algorithm: for each j in [n - k, n), pick t in [0, j], taking j instead if t was already taken.
+        // The chosen indices are kept in an open-addressing set of at least twice the size of the sample.
+        final int n = cells.size();
+        final int[] table = new int[Integer.highestOneBit(2 * k - 1) << 1];
+        Arrays.fill(table, -1);
+        final int mask = table.length - 1;
+        final int[] seeds = new int[k];
+        int chosen = 0;
+        for (int j = n - k; j < n; ++j) {
+            int index = rnd.nextInt(j + 1);
+            if (!insert(table, mask, index)) {
+                index = j;
+                insert(table, mask, j);
+            }
+            seeds[chosen++] = cells.get(index);
+        }
+        return Optional.of(CellSet.of(cells.gridRows(), cells.gridColumns(), seeds));
+    }
 
-        while (seeds.size() < k) {
-            final int i = rnd.nextInt(available.size());
-            seeds.add(available.get(i));
-            available.remove(i);
+    /**
+     * Insert an index into the open-addressing set.
+     * @return false if it was already present
+     */
+    private static boolean insert(int[] table, int mask, int index) {
+        int slot = (index * 0x9E3779B9) & mask;
+        while (table[slot] >= 0) {
+            if (table[slot] == index)
+                return false;
+            slot = (slot + 1) & mask;
         }
-        return Optional.of(Collections.unmodifiableSet(seeds));
+        table[slot] = index;
+        return true;
     }
 }
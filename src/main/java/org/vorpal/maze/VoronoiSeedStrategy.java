@@ -5,9 +5,8 @@
 
 package org.vorpal.maze;
 
-import java.awt.Point;
 import java.util.Optional;
-import java.util.Set;
+import java.util.random.RandomGenerator;
 
 /**
  * A strategy for generating seeds for a given Stage of a Voronoi maze generation algorithm.
@@ -17,8 +16,9 @@ public interface VoronoiSeedStrategy {
     /**
      * Returns the seeds for the given stage.
      * @param stage the stage for which to generate seeds
-     * @return the set of seeds for the given stage, or, if the stage is to be processed using another
-     *         technique, None
+     * @param rnd   the source of all randomness used in choosing the seeds
+     * @return the set of seed cells for the given stage, which must be a subset of the stage's cells, or, if the
+     *         stage is to be processed using another technique, None
      */
-    Optional<Set<Point>> seedsFor(Stage stage);
+    Optional<CellSet> seedsFor(Stage stage, RandomGenerator rnd);
 }
@@ -0,0 +1,47 @@
+/**
+ * WallStore.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+/**
+ * The storage backend of a Maze: two bit planes, one for the east walls and one for the south walls, with a set bit
+ * marking a wall. Each row of a plane is padded to a whole number of 64-bit words, and the padding bits are zero.
+ * <p>
+ * The single-bit updates must be atomic, so that different threads can carve walls of different cells that happen
+ * to share a word.
+ */
+public interface WallStore {
+    int EAST = 0;
+    int SOUTH = 1;
+
+    /**
+     * @return the number of words in each plane
+     */
+    long wordCount();
+
+    long getWord(int plane, long index);
+
+    /**
+     * Overwrite a whole word. This is not atomic with respect to the single-bit updates.
+     */
+    void setWord(int plane, long index, long value);
+
+    /**
+     * Atomically set the bits of a word that are set in the mask.
+     */
+    void setBits(int plane, long index, long mask);
+
+    /**
+     * Atomically clear the bits of a word that are set in the mask.
+     */
+    void clearBits(int plane, long index, long mask);
+
+    /**
+     * @return true if the store cannot be written
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * WilsonMazeGenerator.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.maze;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A maze generator by Wilson's algorithm, which produces a uniformly random spanning tree: from each cell not yet in
+ * the maze, a random walk runs until it hits the maze, and its loop-erased path is carved.
+ * It works directly over any CellSet, so it can also finish the regions of a VoronoiMazeGenerator. If the cells are
+ * not connected, each of their components is rooted at its first cell, so that every walk terminates.
+ * The expected time is the mean hitting time of the walks, which is somewhat more than linear in the cells.
+ */
+final public class WilsonMazeGenerator implements MazeGenerator, RegionMazeGenerator {
+    @Override
+    public Maze generate(int rows, int columns, long seed) {
+        final Maze maze = new Maze(rows, columns);
+        generateInto(maze, seed);
+        return maze;
+    }
+
+    @Override
+    public void generateInto(Maze maze, long seed) {
+        carve(maze, CellSet.full(maze.getRows(), maze.getColumns()), new SplittableRandom(seed));
+    }
+
+    @Override
+    public void carve(Maze maze, CellSet cells, RandomGenerator rnd) {
+        final CellNeighbours graph = new CellNeighbours(cells);
+        final int n = graph.size();
+        final boolean[] inMaze = new boolean[n];
+        final int[] next = new int[n];
+        final int[] neighbours = new int[4];
+
+        // Root each component at its first cell.
+        final boolean[] reached = new boolean[n];
+        final int[] queue = new int[n];
+        for (int root = 0; root < n; ++root) {
+            if (reached[root])
+                continue;
+            inMaze[root] = true;
+            reached[root] = true;
+            queue[0] = root;
+            for (int head = 0, tail = 1; head < tail; ++head) {
+                final int count = graph.neighbours(queue[head], neighbours);
+                for (int i = 0; i < count; ++i)
+                    if (!reached[neighbours[i]]) {
+                        reached[neighbours[i]] = true;
+                        queue[tail++] = neighbours[i];
+                    }
+            }
+        }
+
+        for (int start = 0; start < n; ++start) {
+            if (inMaze[start])
+                continue;
+
+            // Walk until the maze is hit. Overwriting next on revisiting a cell erases the loop.
+            for (int index = start; !inMaze[index]; index = next[index]) {
+                final int count = graph.neighbours(index, neighbours);
+                next[index] = neighbours[rnd.nextInt(count)];
+            }
+
+            // Carve the loop-erased path into the maze.
+            for (int index = start; !inMaze[index]; index = next[index]) {
+                inMaze[index] = true;
+                graph.carve(maze, index, next[index]);
+            }
+        }
+    }
+
+    /**
+     * @return this generator, which already carves regions directly
+     */
+    @Override
+    public RegionMazeGenerator adapt() {
+        return this;
+    }
+}
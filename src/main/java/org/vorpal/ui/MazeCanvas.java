@@ -1,78 +1,290 @@
+/**
+ * MazeCanvas.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
 package org.vorpal.ui;
 
+import javafx.application.Platform;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import org.vorpal.maze.Maze;
 
 import java.awt.Point;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.IntStream;
 
+/**
+ * A Canvas that draws a window onto a maze.
+ * <p>
+ * The walls are coalesced into horizontal and vertical runs by WallRuns, so each wall is drawn once, and all of them
+ * are drawn as a single path with one stroke. Only the cells in the window are drawn: by default the window is the
+ * whole maze at its natural size, but a MazeViewer sizes the canvas to its viewport and moves the window as it scrolls
+ * and zooms. When the cells are smaller than LOD_SCALE pixels, the walls are no longer distinguishable as lines, so
+ * the window is instead drawn by scaling a bitmap of the maze, with one pixel per cell and per wall, which is built
+ * once and cached.
+ */
 public class MazeCanvas extends Canvas {
+    /**
+     * The size of a cell, in pixels, below which the maze is drawn from the cached bitmap.
+     */
+    public static final double LOD_SCALE = 4;
+
+    // The largest width or height of the cached bitmap: beyond this, the bitmap samples the walls of every few cells.
+    private static final int MAXIMUM_LOD_SIZE = 8192;
+
+    private static final int WALL = 0xFF000000;
+    private static final int OPEN = 0x00000000;
+
     private final Maze maze;
     private final double cellSize;
-    private List<Point> solution;   // new field
+    private List<Point> solution;
+    private double zoom = 1;
+    private double originX;
+    private double originY;
+    private WritableImage lod;
+    private boolean drawPending;
 
+    /**
+     * Create a canvas that shows the whole maze.
+     * @param maze     the maze
+     * @param cellSize the size of a cell in pixels at a zoom of 1
+     */
     public MazeCanvas(Maze maze, double cellSize) {
-        super(maze.getColumns() * cellSize, maze.getRows() * cellSize);
+        this(maze, cellSize, maze.getColumns() * cellSize, maze.getRows() * cellSize);
+    }
+
+    /**
+     * Create a canvas of the given size that shows the top left of the maze.
+     */
+    public MazeCanvas(Maze maze, double cellSize, double width, double height) {
+        super(width, height);
         this.maze = maze;
         this.cellSize = cellSize;
+        widthProperty().addListener(o -> requestDraw());
+        heightProperty().addListener(o -> requestDraw());
         draw();
     }
 
     /** Set (or replace) the solution path and redraw. */
     public void setSolution(List<Point> solution) {
         this.solution = solution;
-        draw();
+        requestDraw();
+    }
+
+    /**
+     * Move the window onto the maze.
+     * @param zoom    the zoom, by which the cell size is multiplied
+     * @param originX the horizontal offset of the window into the zoomed maze, in pixels
+     * @param originY the vertical offset of the window into the zoomed maze, in pixels
+     */
+    public void setView(double zoom, double originX, double originY) {
+        this.zoom = zoom;
+        this.originX = originX;
+        this.originY = originY;
+        requestDraw();
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * @return the size of a cell in pixels at the current zoom
+     */
+    public double getScale() {
+        return cellSize * zoom;
+    }
+
+    /**
+     * @return the width of the whole maze in pixels at the given zoom
+     */
+    public double contentWidth(double zoom) {
+        return maze.getColumns() * cellSize * zoom;
+    }
+
+    /**
+     * @return the height of the whole maze in pixels at the given zoom
+     */
+    public double contentHeight(double zoom) {
+        return maze.getRows() * cellSize * zoom;
+    }
+
+    /**
+     * Redraw after the walls of the maze have changed, discarding the cached bitmap.
+     */
+    public void refresh() {
+        lod = null;
+        requestDraw();
+    }
+
+    /**
+     * Draw on the next pulse, so that a batch of changes to the size and view are drawn only once.
+     */
+    private void requestDraw() {
+        if (drawPending)
+            return;
+        drawPending = true;
+        Platform.runLater(() -> {
+            drawPending = false;
+            draw();
+        });
     }
 
     private void draw() {
         final GraphicsContext g = getGraphicsContext2D();
-        g.clearRect(0,0, getWidth(), getHeight());
+        g.clearRect(0, 0, getWidth(), getHeight());
+
+        final double scale = getScale();
+        if (scale < LOD_SCALE)
+            drawBitmap(g);
+        else
+            drawWalls(g, scale);
+
+        // Draw the solution if present.
+        if (solution != null && !solution.isEmpty())
+            drawSolution(g, scale);
+    }
+
+    private void drawWalls(GraphicsContext g, double scale) {
+        final int fromRow = clamp((int) Math.floor(originY / scale), maze.getRows());
+        final int toRow = clamp((int) Math.ceil((originY + getHeight()) / scale), maze.getRows());
+        final int fromColumn = clamp((int) Math.floor(originX / scale), maze.getColumns());
+        final int toColumn = clamp((int) Math.ceil((originX + getWidth()) / scale), maze.getColumns());
+        if (fromRow >= toRow || fromColumn >= toColumn)
+            return;
 
-        // 1) draw walls
         g.setStroke(Color.BLACK);
         g.setLineWidth(2);
+        g.beginPath();
+        WallRuns.horizontal(maze, fromRow, toRow, fromColumn, toColumn, (line, from, to) -> {
+            final double y = line * scale - originY;
+            g.moveTo(from * scale - originX, y);
+            g.lineTo(to * scale - originX, y);
+        });
+        WallRuns.vertical(maze, fromRow, toRow, fromColumn, toColumn, (line, from, to) -> {
+            final double x = line * scale - originX;
+            g.moveTo(x, from * scale - originY);
+            g.lineTo(x, to * scale - originY);
+        });
+        g.stroke();
+    }
+
+    private void drawBitmap(GraphicsContext g) {
+        final WritableImage image = lod();
+        final double width = Math.min(getWidth(), contentWidth(zoom) - originX);
+        final double height = Math.min(getHeight(), contentHeight(zoom) - originY);
+        if (width <= 0 || height <= 0)
+            return;
+
+        // The number of bitmap pixels per canvas pixel in each direction.
+        final double kx = image.getWidth() / contentWidth(zoom);
+        final double ky = image.getHeight() / contentHeight(zoom);
+        g.setImageSmoothing(true);
+        g.drawImage(image, originX * kx, originY * ky, width * kx, height * ky, 0, 0, width, height);
+    }
+
+    /**
+     * Build the bitmap of the maze if needed: cell (r, c) is pixel (2r + 1, 2c + 1), its east and south walls are the
+     * pixels to its right and below it, and the pixels at the corners are always walls. If this would be too large,
+     * only every step-th row and column is kept, with the walls between the kept cells taken from the boundaries of
+     * the blocks that they represent.
+     */
+    private WritableImage lod() {
+        if (lod != null)
+            return lod;
 
         final int rows = maze.getRows();
-        final int cols = maze.getColumns();
-        IntStream.range(0, rows).forEach(r -> {
-            final double y = r * cellSize;
-            final Function<Integer, Point> cellGenerator = c -> new Point(r, c);
-           IntStream.range(0, cols).forEach(c -> {
-              final double x = c * cellSize;
-              final Point cell = cellGenerator.apply(c);
-
-              if (maze.hasWall(cell, Maze.Direction.NORTH))
-                  g.strokeLine(x, y, x + cellSize, y);
-               if (maze.hasWall(cell, Maze.Direction.EAST))
-                   g.strokeLine(x + cellSize, y,x + cellSize,y + cellSize);
-               if (maze.hasWall(cell, Maze.Direction.SOUTH))
-                   g.strokeLine(x,y + cellSize,x + cellSize,y + cellSize);
-               if (maze.hasWall(cell, Maze.Direction.WEST))
-                   g.strokeLine(x, y, x,y + cellSize);
-           });
-        });
+        final int columns = maze.getColumns();
+        final int half = (MAXIMUM_LOD_SIZE - 1) / 2;
+        final int step = Math.max(1, (Math.max(rows, columns) + half - 1) / half);
+        final int sampledRows = (rows + step - 1) / step;
+        final int sampledColumns = (columns + step - 1) / step;
+        final int width = 2 * sampledColumns + 1;
+        final int height = 2 * sampledRows + 1;
+        final WritableImage image = new WritableImage(width, height);
+        final PixelWriter writer = image.getPixelWriter();
+        final PixelFormat<IntBuffer> format = PixelFormat.getIntArgbInstance();
 
-        // Draw the solution if present.
-        if (solution != null && !solution.isEmpty()) {
-            g.setStroke(Color.RED);
-            g.setLineWidth(cellSize * 0.3);
-
-            // draw a continuous path through the center of each cell
-            IntStream.range(0, solution.size() - 1).forEach(i -> {
-                final Point p1 = solution.get(i);
-                final Point p2 = solution.get(i+1);
-
-                final double x1 = p1.y * cellSize + cellSize/2;
-                final double y1 = p1.x * cellSize + cellSize/2;
-                final double x2 = p2.y * cellSize + cellSize/2;
-                final double y2 = p2.x * cellSize + cellSize/2;
-
-                g.strokeLine(x1, y1, x2, y2);
-            });
+        final int[] pixels = new int[width];
+        final long[] words = new long[maze.wordsPerRow()];
+        Arrays.fill(pixels, WALL);
+        writer.setPixels(0, 0, width, 1, format, pixels, 0, width);
+        for (int i = 0; i < sampledRows; ++i) {
+            // The row of cells: the east walls are at the right edges of the blocks.
+            final int row = i * step;
+            read(Maze.Direction.EAST, row, words);
+            pixels[0] = WALL;
+            for (int j = 0; j < sampledColumns; ++j) {
+                final int column = Math.min((j + 1) * step, columns) - 1;
+                pixels[2 * j + 1] = OPEN;
+                pixels[2 * j + 2] = bit(words, column) ? WALL : OPEN;
+            }
+            writer.setPixels(0, 2 * i + 1, width, 1, format, pixels, 0, width);
+
+            // The row of south walls, at the bottom edges of the blocks.
+            read(Maze.Direction.SOUTH, Math.min((i + 1) * step, rows) - 1, words);
+            for (int j = 0; j < sampledColumns; ++j) {
+                pixels[2 * j + 1] = bit(words, j * step) ? WALL : OPEN;
+                pixels[2 * j + 2] = WALL;
+            }
+            writer.setPixels(0, 2 * i + 2, width, 1, format, pixels, 0, width);
+        }
+        lod = image;
+        return image;
+    }
+
+    private void read(Maze.Direction direction, int row, long[] words) {
+        for (int w = 0; w < words.length; ++w)
+            words[w] = maze.wallWord(direction, row, w);
+    }
+
+    private static boolean bit(long[] words, int column) {
+        return (words[column >>> 6] >>> column & 1L) != 0;
+    }
+
+    /**
+     * Draw the solution as one path through the centres of its cells, leaving out the steps that are entirely
+     * outside the window.
+     */
+    private void drawSolution(GraphicsContext g, double scale) {
+        g.setStroke(Color.RED);
+        g.setLineWidth(Math.max(1, scale * 0.3));
+
+        // The window, in cells, grown by a cell so that steps crossing its edges are kept.
+        final double minRow = originY / scale - 1;
+        final double maxRow = (originY + getHeight()) / scale;
+        final double minColumn = originX / scale - 1;
+        final double maxColumn = (originX + getWidth()) / scale;
+
+        g.beginPath();
+        boolean drawing = false;
+        Point previous = solution.get(0);
+        boolean previousVisible = previous.x >= minRow && previous.x <= maxRow
+                && previous.y >= minColumn && previous.y <= maxColumn;
+        for (int i = 1; i < solution.size(); ++i) {
+            final Point p = solution.get(i);
+            final boolean visible = p.x >= minRow && p.x <= maxRow && p.y >= minColumn && p.y <= maxColumn;
+            if (visible || previousVisible) {
+                if (!drawing)
+                    g.moveTo((previous.y + 0.5) * scale - originX, (previous.x + 0.5) * scale - originY);
+                g.lineTo((p.y + 0.5) * scale - originX, (p.x + 0.5) * scale - originY);
+                drawing = true;
+            } else {
+                drawing = false;
+            }
+            previous = p;
+            previousVisible = visible;
         }
+        g.stroke();
+    }
+
+    private static int clamp(int value, int maximum) {
+        return Math.max(0, Math.min(value, maximum));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,511 @@
+/**
+ * MazeImageWriter.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.ui;
+
+import org.vorpal.maze.Maze;
+
+import java.awt.Point;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Write images of mazes as PNG, PGM or PBM files, without JavaFX or AWT imaging, straight from the wall planes.
+ * <p>
+ * Each cell is a square of cellSize pixels and each wall is wallSize pixels thick, with the corners between cells
+ * always filled. The image is produced in bands of maze rows, which are rendered (and for PNG, deflated) in parallel,
+ * while the calling thread writes the finished bands out in order, so the whole image is never held in memory: at
+ * most a few bands per thread are in flight, and a PNG band is only held once compressed. Within a band, each pixel
+ * row of walls and of cells is rendered once and fed to the compressor as many times as it is repeated.
+ * <p>
+ * The bands of a PNG are compressed independently, as in pigz: every band but the last ends with a sync flush, so
+ * the compressed bands concatenate into one deflate stream, and their Adler-32 checksums are combined for the zlib
+ * trailer.
+ * <p>
+ * An optional solution is drawn by filling its cells, and the openings between consecutive cells, with the solution
+ * colour.
+ */
+public final class MazeImageWriter {
+    public enum Format {
+        /** An indexed colour PNG, with 1 or 2 bits per pixel. */
+        PNG,
+        /** A binary greyscale PGM (P5), with 8 bits per pixel. */
+        PGM,
+        /** A binary bitmap PBM (P4), where pixels darker than mid-grey are black. */
+        PBM
+    }
+
+    /**
+     * The colours of an image, as 0xRRGGBB.
+     */
+    public record Palette(int passage, int wall, int solution) {
+        public static final Palette DEFAULT = new Palette(0xFFFFFF, 0x000000, 0xFF0000);
+
+        private int colour(int index) {
+            return switch (index) {
+                case PASSAGE -> passage;
+                case WALL -> wall;
+                default -> solution;
+            };
+        }
+
+        private int grey(int index) {
+            final int colour = colour(index);
+            return (299 * (colour >>> 16 & 0xFF) + 587 * (colour >>> 8 & 0xFF) + 114 * (colour & 0xFF)) / 1000;
+        }
+    }
+
+    // The palette indices.
+    private static final int PASSAGE = 0;
+    private static final int WALL = 1;
+    private static final int SOLUTION = 2;
+
+    /**
+     * The default deflate level of a PNG: on maze images, level 3 compresses 2.5 times faster than level 6, for files
+     * about a third larger.
+     */
+    public static final int DEFAULT_LEVEL = 3;
+
+    // The approximate number of uncompressed bytes in a band.
+    private static final long BAND_BYTES = 1 << 20;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final int ADLER_BASE = 65521;
+
+    private final int cellSize;
+    private final int wallSize;
+    private final Palette palette;
+    private final int level;
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a writer with the default palette that renders in the common pool.
+     */
+    public MazeImageWriter(int cellSize, int wallSize) {
+        this(cellSize, wallSize, Palette.DEFAULT, DEFAULT_LEVEL, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param cellSize the size of a cell in pixels, at least 1
+     * @param wallSize the thickness of a wall in pixels, at least 1
+     * @param palette  the colours
+     * @param level    the deflate level of a PNG, from 1 to 9
+     * @param pool     the pool in which the bands are rendered
+     */
+    public MazeImageWriter(int cellSize, int wallSize, Palette palette, int level, ForkJoinPool pool) {
+        if (cellSize < 1 || wallSize < 1)
+            throw new IllegalArgumentException("Cells and walls must be at least one pixel.");
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("Invalid deflate level: " + level);
+        this.cellSize = cellSize;
+        this.wallSize = wallSize;
+        this.palette = palette;
+        this.level = level;
+        this.pool = pool;
+    }
+
+    /**
+     * @return the width in pixels of the image of a maze
+     */
+    public long width(Maze maze) {
+        return (long) maze.getColumns() * cellSize + (long) (maze.getColumns() + 1) * wallSize;
+    }
+
+    /**
+     * @return the height in pixels of the image of a maze
+     */
+    public long height(Maze maze) {
+        return (long) maze.getRows() * cellSize + (long) (maze.getRows() + 1) * wallSize;
+    }
+
+    /**
+     * Write the image of a maze to a file.
+     * @param solution the path to draw, as (row, column) points, or null
+     */
+    public void write(Maze maze, List<Point> solution, Format format, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            write(maze, solution, format, out);
+        }
+    }
+
+    /**
+     * Write the image of a maze to a stream, which is not closed.
+     * @param solution the path to draw, as (row, column) points, or null
+     */
+    public void write(Maze maze, List<Point> solution, Format format, OutputStream out) throws IOException {
+        final long width = width(maze);
+        final long height = height(maze);
+        if (width > Integer.MAX_VALUE / 8 || height > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The image of the maze is too large.");
+
+        final Encoder encoder = new Encoder(maze, onPath(maze, solution), format, solution != null, (int) width);
+        final int rows = maze.getRows();
+        final long rowsPerBand = Math.max(1, BAND_BYTES / ((long) encoder.lineBytes * (cellSize + wallSize)));
+        final int bands = (int) ((rows + rowsPerBand - 1) / rowsPerBand);
+        final int window = 2 * pool.getParallelism();
+
+        encoder.writeHeader(out, (int) height);
+        final ArrayDeque<CompletableFuture<Band>> pending = new ArrayDeque<>();
+        long adler = 1;
+        int next = 0;
+        while (next < bands || !pending.isEmpty()) {
+            while (next < bands && pending.size() < window) {
+                final int fromRow = (int) (next * rowsPerBand);
+                final int toRow = (int) Math.min(rows, fromRow + rowsPerBand);
+                pending.add(CompletableFuture.supplyAsync(() -> encoder.encode(fromRow, toRow), pool));
+                ++next;
+            }
+
+            final Band band = join(pending.poll());
+            if (format == Format.PNG) {
+                writeChunk(out, "IDAT", band.bytes(), band.length());
+                adler = combineAdler(adler, band.adler(), band.rawLength());
+            } else {
+                out.write(band.bytes(), 0, band.length());
+            }
+        }
+
+        if (format == Format.PNG) {
+            writeChunk(out, "IDAT", new byte[]{
+                    (byte) (adler >>> 24), (byte) (adler >>> 16), (byte) (adler >>> 8), (byte) adler}, 4);
+            writeChunk(out, "IEND", new byte[0], 0);
+        }
+        out.flush();
+    }
+
+    /**
+     * A band of the image, encoded.
+     * @param rawLength for PNG, the number of bytes of scanlines compressed
+     * @param adler     for PNG, the Adler-32 of the scanlines
+     */
+    private record Band(byte[] bytes, int length, long rawLength, long adler) {}
+
+    /**
+     * Renders and encodes bands of an image. It is shared by the tasks, so all its state is immutable.
+     */
+    private final class Encoder {
+        private final Maze maze;
+        private final long[] onPath;
+        private final Format format;
+        private final int width;
+        private final int bits;
+        private final int[] values;
+        // The scanlines of a PNG start with a filter type byte.
+        private final int prefix;
+        private final int lineBytes;
+
+        Encoder(Maze maze, long[] onPath, Format format, boolean hasSolution, int width) {
+            this.maze = maze;
+            this.onPath = onPath;
+            this.format = format;
+            this.width = width;
+            values = new int[3];
+            for (int i = PASSAGE; i <= SOLUTION; ++i)
+                values[i] = switch (format) {
+                    case PNG -> i;
+                    case PGM -> palette.grey(i);
+                    case PBM -> palette.grey(i) < 128 ? 1 : 0;
+                };
+            bits = switch (format) {
+                case PNG -> hasSolution ? 2 : 1;
+                case PGM -> 8;
+                case PBM -> 1;
+            };
+            prefix = format == Format.PNG ? 1 : 0;
+            lineBytes = prefix + (int) (((long) width * bits + 7) / 8);
+        }
+
+        void writeHeader(OutputStream out, int height) throws IOException {
+            switch (format) {
+                case PNG -> {
+                    out.write(PNG_SIGNATURE);
+                    final byte[] header = new byte[13];
+                    putInt(header, 0, width);
+                    putInt(header, 4, height);
+                    header[8] = (byte) bits;
+                    // Indexed colour, deflate, adaptive filtering, no interlacing.
+                    header[9] = 3;
+                    writeChunk(out, "IHDR", header, header.length);
+
+                    final int colours = bits == 1 ? 2 : 3;
+                    final byte[] entries = new byte[3 * colours];
+                    for (int i = 0; i < colours; ++i) {
+                        final int colour = palette.colour(i);
+                        entries[3 * i] = (byte) (colour >>> 16);
+                        entries[3 * i + 1] = (byte) (colour >>> 8);
+                        entries[3 * i + 2] = (byte) colour;
+                    }
+                    writeChunk(out, "PLTE", entries, entries.length);
+
+                    // The zlib header: deflate with a 32K window, and the level in the two bits of FLEVEL.
+                    final int flags = level == 1 ? 0x01 : level < 6 ? 0x5E : level == 6 ? 0x9C : 0xDA;
+                    writeChunk(out, "IDAT", new byte[]{0x78, (byte) flags}, 2);
+                }
+                case PGM -> out.write(("P5\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+                case PBM -> out.write(("P4\n" + width + " " + height + "\n").getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+
+        /**
+         * Encode the pixel rows of the maze rows [fromRow, toRow), and of the bottom border after the last row.
+         */
+        Band encode(int fromRow, int toRow) {
+            final int rows = maze.getRows();
+            final byte[] walls = new byte[lineBytes];
+            final byte[] cells = new byte[lineBytes];
+            final long[] words = new long[maze.wordsPerRow()];
+            final Sink sink = format == Format.PNG ? new DeflateSink(level, toRow == rows) : new RawSink();
+            for (int r = fromRow; r <= toRow; ++r) {
+                if (r == toRow && r != rows)
+                    break;
+                renderWalls(r, walls, words);
+                for (int i = 0; i < wallSize; ++i)
+                    sink.accept(walls);
+                if (r < rows) {
+                    renderCells(r, cells, words);
+                    for (int i = 0; i < cellSize; ++i)
+                        sink.accept(cells);
+                }
+            }
+            return sink.finish();
+        }
+
+        /**
+         * Render the pixel row of the horizontal walls on the north side of row r, or the south border if r is rows.
+         */
+        private void renderWalls(int r, byte[] line, long[] words) {
+            final int columns = maze.getColumns();
+            if (r == 0)
+                Arrays.fill(words, -1L);
+            else
+                read(Maze.Direction.SOUTH, r - 1, words);
+            int x = 0;
+            for (int c = 0; c < columns; ++c) {
+                fill(line, x, x + wallSize, WALL);
+                x += wallSize;
+                final int index = bit(words, c) ? WALL
+                        : onPath(r - 1, c) && onPath(r, c) ? SOLUTION : PASSAGE;
+                fill(line, x, x + cellSize, index);
+                x += cellSize;
+            }
+            fill(line, x, x + wallSize, WALL);
+        }
+
+        /**
+         * Render a pixel row through the cells of row r and the vertical walls between them.
+         */
+        private void renderCells(int r, byte[] line, long[] words) {
+            final int columns = maze.getColumns();
+            read(Maze.Direction.EAST, r, words);
+            int x = 0;
+            for (int c = 0; c < columns; ++c) {
+                final int index = c == 0 || bit(words, c - 1) ? WALL
+                        : onPath(r, c - 1) && onPath(r, c) ? SOLUTION : PASSAGE;
+                fill(line, x, x + wallSize, index);
+                x += wallSize;
+                fill(line, x, x + cellSize, onPath(r, c) ? SOLUTION : PASSAGE);
+                x += cellSize;
+            }
+            fill(line, x, x + wallSize, WALL);
+        }
+
+        private void read(Maze.Direction direction, int row, long[] words) {
+            for (int w = 0; w < words.length; ++w)
+                words[w] = maze.wallWord(direction, row, w);
+        }
+
+        private boolean onPath(int row, int column) {
+            if (onPath == null)
+                return false;
+            final long cell = (long) row * maze.getColumns() + column;
+            return (onPath[(int) (cell >>> 6)] >>> cell & 1L) != 0;
+        }
+
+        /**
+         * Set the pixels [from, to) of a scanline to the value of a palette index, packed most significant bit first.
+         */
+        private void fill(byte[] line, int from, int to, int index) {
+            final int value = values[index];
+            if (bits == 8) {
+                Arrays.fill(line, prefix + from, prefix + to, (byte) value);
+                return;
+            }
+            final int mask = (1 << bits) - 1;
+            for (int x = from; x < to; ++x) {
+                final int position = x * bits;
+                final int i = prefix + (position >>> 3);
+                final int shift = 8 - bits - (position & 7);
+                line[i] = (byte) (line[i] & ~(mask << shift) | value << shift);
+            }
+        }
+    }
+
+    /**
+     * Receives the scanlines of a band.
+     */
+    private interface Sink {
+        void accept(byte[] line);
+
+        Band finish();
+    }
+
+    /**
+     * Collects scanlines as they are.
+     */
+    private static final class RawSink implements Sink {
+        private byte[] bytes = new byte[1 << 12];
+        private int length;
+
+        @Override
+        public void accept(byte[] line) {
+            if (length + line.length > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + line.length));
+            System.arraycopy(line, 0, bytes, length, line.length);
+            length += line.length;
+        }
+
+        @Override
+        public Band finish() {
+            return new Band(bytes, length, length, 0);
+        }
+    }
+
+    /**
+     * Deflates scanlines into a raw deflate stream, which ends with a sync flush unless it is the last band.
+     */
+    private static final class DeflateSink implements Sink {
+        private final Deflater deflater;
+        private final Adler32 adler = new Adler32();
+        private final boolean last;
+        private byte[] bytes = new byte[1 << 12];
+        private int length;
+        private long rawLength;
+
+        DeflateSink(int level, boolean last) {
+            deflater = new Deflater(level, true);
+            this.last = last;
+        }
+
+        @Override
+        public void accept(byte[] line) {
+            adler.update(line);
+            rawLength += line.length;
+            deflater.setInput(line);
+            while (!deflater.needsInput())
+                drain(Deflater.NO_FLUSH);
+        }
+
+        @Override
+        public Band finish() {
+            try {
+                if (last) {
+                    deflater.finish();
+                    while (!deflater.finished())
+                        drain(Deflater.NO_FLUSH);
+                } else {
+                    // The output is complete once the deflater stops filling the space it is given.
+                    while (drain(Deflater.SYNC_FLUSH))
+                        ;
+                }
+            } finally {
+                deflater.end();
+            }
+            return new Band(bytes, length, rawLength, adler.getValue());
+        }
+
+        /**
+         * @return true if the free space was filled, so that there may be more output
+         */
+        private boolean drain(int flush) {
+            if (bytes.length - length < 1 << 12)
+                bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+            final int space = bytes.length - length;
+            final int written = deflater.deflate(bytes, length, space, flush);
+            length += written;
+            return written == space;
+        }
+    }
+
+    private static long[] onPath(Maze maze, List<Point> solution) {
+        if (solution == null)
+            return null;
+        final long[] bits = new long[(int) (((long) maze.getRows() * maze.getColumns() + 63) >>> 6)];
+        for (final Point p : solution) {
+            final long cell = (long) p.x * maze.getColumns() + p.y;
+            bits[(int) (cell >>> 6)] |= 1L << cell;
+        }
+        return bits;
+    }
+
+    private static boolean bit(long[] words, int column) {
+        return (words[column >>> 6] >>> column & 1L) != 0;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private static void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+        final byte[] header = new byte[8];
+        putInt(header, 0, length);
+        final byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(name, 0, header, 4, 4);
+        final CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data, 0, length);
+        out.write(header);
+        out.write(data, 0, length);
+        final byte[] trailer = new byte[4];
+        putInt(trailer, 0, (int) crc.getValue());
+        out.write(trailer);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * The Adler-32 of the concatenation of two byte sequences, given their checksums and the length of the second,
+     * as in zlib's adler32_combine.
+     */
+    private static long combineAdler(long adler1, long adler2, long length2) {
+        final long remainder = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = remainder * sum1 % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += (adler1 >>> 16 & 0xFFFF) + (adler2 >>> 16 & 0xFFFF) + ADLER_BASE - remainder;
+        if (sum1 >= ADLER_BASE)
+            sum1 -= ADLER_BASE;
+        if (sum1 >= ADLER_BASE)
+            sum1 -= ADLER_BASE;
+        if (sum2 >= 2L * ADLER_BASE)
+            sum2 -= 2L * ADLER_BASE;
+        if (sum2 >= ADLER_BASE)
+            sum2 -= ADLER_BASE;
+        return sum1 | sum2 << 16;
+    }
+}
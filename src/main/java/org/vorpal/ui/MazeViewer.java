@@ -0,0 +1,143 @@
+/**
+ * MazeViewer.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.ui;
+
+import javafx.beans.InvalidationListener;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import org.vorpal.maze.Maze;
+
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * A scrolling, zooming view of a maze, which can be panned by dragging and zoomed with the control key and the scroll
+ * wheel. The content is an empty pane with the size of the whole zoomed maze, which costs nothing to lay out, and a
+ * MazeCanvas the size of the viewport is kept over the visible part of it, so that only the visible cells are drawn
+ * however large the maze is.
+ */
+public class MazeViewer extends ScrollPane {
+    // The limits on the size of a cell in pixels.
+    private static final double MINIMUM_SCALE = 0.05;
+    private static final double MAXIMUM_SCALE = 64;
+
+    private static final double ZOOM_FACTOR = 1.1;
+
+    private final MazeCanvas canvas;
+    private final Pane content;
+    private final double cellSize;
+    private double zoom = 1;
+
+    /**
+     * @param maze     the maze
+     * @param cellSize the size of a cell in pixels at a zoom of 1
+     */
+    public MazeViewer(Maze maze, double cellSize) {
+        this.cellSize = cellSize;
+        canvas = new MazeCanvas(maze, cellSize, 0, 0);
+        content = new Pane(canvas);
+        setContent(content);
+        setPannable(true);
+        resizeContent();
+
+        final InvalidationListener update = o -> updateViewport();
+        viewportBoundsProperty().addListener(update);
+        hvalueProperty().addListener(update);
+        vvalueProperty().addListener(update);
+
+        addEventFilter(ScrollEvent.SCROLL, e -> {
+            if (!e.isControlDown() || e.getDeltaY() == 0)
+                return;
+            final Point2D point = content.sceneToLocal(e.getSceneX(), e.getSceneY());
+            zoomAt(e.getDeltaY() > 0 ? zoom * ZOOM_FACTOR : zoom / ZOOM_FACTOR, point.getX(), point.getY());
+            e.consume();
+        });
+    }
+
+    /** Set (or replace) the solution path and redraw. */
+    public void setSolution(List<Point> solution) {
+        canvas.setSolution(solution);
+    }
+
+    public MazeCanvas getCanvas() {
+        return canvas;
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Zoom about the centre of the viewport.
+     */
+    public void setZoom(double zoom) {
+        final Bounds viewport = getViewportBounds();
+        zoomAt(zoom, offsetX() + viewport.getWidth() / 2, offsetY() + viewport.getHeight() / 2);
+    }
+
+    /**
+     * Zoom, keeping the point of the content at (x, y) at the same place in the viewport.
+     */
+    private void zoomAt(double zoom, double x, double y) {
+        final double clamped = Math.max(MINIMUM_SCALE / cellSize, Math.min(zoom, MAXIMUM_SCALE / cellSize));
+        final double ratio = clamped / this.zoom;
+        final double viewX = x - offsetX();
+        final double viewY = y - offsetY();
+        this.zoom = clamped;
+        resizeContent();
+        layout();
+
+        final Bounds viewport = getViewportBounds();
+        final double rangeX = canvas.contentWidth(clamped) - viewport.getWidth();
+        final double rangeY = canvas.contentHeight(clamped) - viewport.getHeight();
+        final double fractionX = rangeX > 0 ? Math.max(0, Math.min(1, (x * ratio - viewX) / rangeX)) : 0;
+        final double fractionY = rangeY > 0 ? Math.max(0, Math.min(1, (y * ratio - viewY) / rangeY)) : 0;
+        setHvalue(getHmin() + fractionX * (getHmax() - getHmin()));
+        setVvalue(getVmin() + fractionY * (getVmax() - getVmin()));
+        updateViewport();
+    }
+
+    private void resizeContent() {
+        final double width = canvas.contentWidth(zoom);
+        final double height = canvas.contentHeight(zoom);
+        content.setMinSize(width, height);
+        content.setPrefSize(width, height);
+        content.setMaxSize(width, height);
+    }
+
+    /**
+     * @return the offset of the left of the viewport into the content
+     */
+    private double offsetX() {
+        final double range = canvas.contentWidth(zoom) - getViewportBounds().getWidth();
+        return range > 0 ? range * (getHvalue() - getHmin()) / (getHmax() - getHmin()) : 0;
+    }
+
+    /**
+     * @return the offset of the top of the viewport into the content
+     */
+    private double offsetY() {
+        final double range = canvas.contentHeight(zoom) - getViewportBounds().getHeight();
+        return range > 0 ? range * (getVvalue() - getVmin()) / (getVmax() - getVmin()) : 0;
+    }
+
+    /**
+     * Move the canvas over the visible part of the content and size it to match.
+     */
+    private void updateViewport() {
+        final Bounds viewport = getViewportBounds();
+        final double x = offsetX();
+        final double y = offsetY();
+        canvas.setLayoutX(x);
+        canvas.setLayoutY(y);
+        canvas.setWidth(Math.min(viewport.getWidth(), canvas.contentWidth(zoom)));
+        canvas.setHeight(Math.min(viewport.getHeight(), canvas.contentHeight(zoom)));
+        canvas.setView(zoom, x, y);
+    }
+}
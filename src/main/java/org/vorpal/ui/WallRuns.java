@@ -0,0 +1,115 @@
+/**
+ * WallRuns.java
+ * By Sebastian Raaphorst, 2025.
+ */
+
+package org.vorpal.ui;
+
+import org.vorpal.maze.Maze;
+
+/**
+ * Coalesce the walls of a maze into maximal horizontal and vertical runs, read a word at a time from the east and
+ * south wall planes, so that every wall is drawn exactly once and a straight stretch of walls is drawn as one line.
+ * <p>
+ * Horizontal line r is the north side of row r (and the south side of row r - 1), and vertical line c is the west
+ * side of column c (and the east side of column c - 1), so a maze has rows + 1 horizontal lines and columns + 1
+ * vertical lines, with the first and last of each being the border.
+ */
+public final class WallRuns {
+    /**
+     * Receives runs of walls along a line.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        /**
+         * @param line the index of the line
+         * @param from the first cell along the line covered by the run
+         * @param to   one past the last cell along the line covered by the run
+         */
+        void run(int line, int from, int to);
+    }
+
+    private WallRuns() {}
+
+    /**
+     * Find the horizontal runs of the lines fromRow to toRow, inclusive, within the columns [fromColumn, toColumn).
+     * The runs of each line are reported in order, and the lines are reported in order.
+     */
+    public static void horizontal(Maze maze, int fromRow, int toRow, int fromColumn, int toColumn, Sink sink) {
+        if (fromColumn >= toColumn)
+            return;
+        final int firstWord = fromColumn >>> 6;
+        final int lastWord = (toColumn - 1) >>> 6;
+        for (int line = fromRow; line <= toRow; ++line) {
+            int start = -1;
+            long previous = 0;
+            for (int w = firstWord; w <= lastWord; ++w) {
+                // The north border is implicit, and the south border is stored in the plane.
+                final long bits = (line == 0 ? -1L : maze.wallWord(Maze.Direction.SOUTH, line - 1, w))
+                        & rangeMask(w, fromColumn, toColumn);
+                long changes = bits ^ (bits << 1 | previous >>> 63);
+                while (changes != 0) {
+                    final int column = 64 * w + Long.numberOfTrailingZeros(changes);
+                    if (start < 0)
+                        start = column;
+                    else {
+                        sink.run(line, start, column);
+                        start = -1;
+                    }
+                    changes &= changes - 1;
+                }
+                previous = bits;
+            }
+            if (start >= 0)
+                sink.run(line, start, toColumn);
+        }
+    }
+
+    /**
+     * Find the vertical runs of the lines fromColumn to toColumn, inclusive, within the rows [fromRow, toRow).
+     * The runs are reported in order of the row at which they end.
+     */
+    public static void vertical(Maze maze, int fromRow, int toRow, int fromColumn, int toColumn, Sink sink) {
+        if (fromRow >= toRow)
+            return;
+
+        // Bit b of word w of a row of lines is the wall on line 64 * w + b, i.e. the east wall of column 64 * w + b - 1.
+        final int wordsPerRow = maze.wordsPerRow();
+        final int firstWord = fromColumn >>> 6;
+        final int lastWord = toColumn >>> 6;
+        final long[] previous = new long[lastWord - firstWord + 1];
+        final int[] starts = new int[toColumn - fromColumn + 1];
+        for (int r = fromRow; r <= toRow; ++r) {
+            for (int w = firstWord; w <= lastWord; ++w) {
+                long lines = 0;
+                if (r < toRow) {
+                    final long east = w < wordsPerRow ? maze.wallWord(Maze.Direction.EAST, r, w) : 0;
+                    final long carry = w > 0 ? maze.wallWord(Maze.Direction.EAST, r, w - 1) >>> 63 : 1;
+                    lines = (east << 1 | carry) & rangeMask(w, fromColumn, toColumn + 1);
+                }
+                long changes = lines ^ previous[w - firstWord];
+                while (changes != 0) {
+                    final int line = 64 * w + Long.numberOfTrailingZeros(changes);
+                    if ((lines & (changes & -changes)) != 0)
+                        starts[line - fromColumn] = r;
+                    else
+                        sink.run(line, starts[line - fromColumn], r);
+                    changes &= changes - 1;
+                }
+                previous[w - firstWord] = lines;
+            }
+        }
+    }
+
+    /**
+     * @return the bits of word w that fall in [from, to)
+     */
+    private static long rangeMask(int w, int from, int to) {
+        final int low = Math.max(from - 64 * w, 0);
+        final int high = Math.min(to - 64 * w, 64);
+        if (low >= high)
+            return 0;
+        final long upTo = high == 64 ? -1L : (1L << high) - 1;
+        return upTo & (-1L << low);
+    }
+}